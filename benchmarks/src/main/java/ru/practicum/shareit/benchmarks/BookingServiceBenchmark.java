@@ -0,0 +1,35 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.pagination.KeysetPage;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"ALL", "PAST", "FUTURE", "WAITING"})
+    public String state;
+
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItDataset dataset) {
+        bookingService = dataset.bean(BookingService.class);
+    }
+
+    // Первая страница бронирований вещей владельца
+    @Benchmark
+    public KeysetPage<BookingResponseDto> getAllOwnerBookingAtState() {
+        return bookingService.getAllOwnerBookingAtState(ShareItDataset.HOT_OWNER_ID, state, null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.server.ShareItServer;
+import ru.practicum.shareit.server.booking.dal.BookingRepository;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.user.dal.UserRepository;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Массовое создание бронирований одной транзакцией (saveAll).
+// jdbcBatchSize=1 - прежнее поведение: при IDENTITY каждая строка уходила отдельным INSERT за ключом,
+// 50 - пакетная вставка с id из последовательности, как в application.properties.
+// Контекст свой, на пустой H2: набор данных ShareItDataset здесь не нужен
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Param({"500"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private User booker;
+    private Item item;
+    private LocalDateTime start;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        bookingRepository = context.getBean(BookingRepository.class);
+
+        User user = new User();
+        user.setName("booker");
+        user.setEmail("booker@bench.example.com");
+        booker = context.getBean(UserRepository.class).save(user);
+
+        Item newItem = new Item();
+        newItem.setName("дрель");
+        newItem.setDescription("аккумуляторная дрель");
+        newItem.setAvailable(true);
+        newItem.setOwner(booker.getId());
+        item = context.getBean(ItemRepository.class).save(newItem);
+
+        start = LocalDateTime.now().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    // Одна операция - rows новых бронирований
+    @Benchmark
+    public List<Booking> saveAll() {
+        List<Booking> bookings = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStart(start.plusHours(i));
+            booking.setEnd(start.plusHours(i + 1));
+            booking.setStatus(BookingStatus.WAITING);
+            bookings.add(booking);
+        }
+        return bookingRepository.saveAll(bookings);
+    }
+}
@@ -0,0 +1,270 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.gateway.ShareItGateway;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Нагрузочный тест gateway: сравнение режимов платформенных и виртуальных потоков.
+// Вместо server - заглушка, которая отвечает на GET /users/{id} с фиксированной задержкой. Всё это время
+// запрос gateway заблокирован в вызове Feign, поэтому в режиме платформенных потоков одновременно
+// обслуживается не больше server.tomcat.threads.max запросов, а в режиме виртуальных - сколько позволяет
+// пул соединений Feign (shareit-server.pool.max-total).
+// Заглушка и клиент асинхронные и не держат потоков на запрос, так что прирост потоков и кучи
+// под нагрузкой относится к gateway. Куча меряется после GC: в ней лежат и стеки виртуальных потоков,
+// стеки платформенных потоков оцениваются по зарезервированному размеру (-Xss).
+// Каждый клиент запрашивает своего пользователя, иначе одинаковые запросы схлопнулись бы в один вызов
+// заглушки (RequestCoalescingFilter). hotKey=true - все клиенты запрашивают одно и то же: колонка upstream
+// показывает, какая доля запросов gateway дошла до заглушки.
+// Параметры (key=value): modes=platform,virtual concurrency=100,400,1600 latencyMs=100 seconds=10 hotKey=false
+public class GatewayLoadTest {
+
+    private static final int GATEWAY_MAX_CONNECTIONS = 20000;
+    private static final long DEFAULT_STACK_KB = 1024;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> params = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            params.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+
+        List<String> modes = List.of(params.getOrDefault("modes", "platform,virtual").split(","));
+        int[] levels = Arrays.stream(params.getOrDefault("concurrency", "100,400,1600").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration latency = Duration.ofMillis(Long.parseLong(params.getOrDefault("latencyMs", "100")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(params.getOrDefault("seconds", "10")));
+        boolean hotKey = Boolean.parseBoolean(params.getOrDefault("hotKey", "false"));
+
+        // заглушка не должна закрывать keep-alive соединения gateway сверх своего лимита простаивающих
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(GATEWAY_MAX_CONNECTIONS));
+
+        ServerStub stub = new ServerStub(latency);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("%-8s %11s %9s %8s %8s %7s %9s %9s %8s %15s %16s%n",
+                "mode", "concurrency", "req/s", "p50 ms", "p99 ms", "errors", "upstream",
+                "in-flight", "+threads", "heap KB/req", "stack KB/req");
+        try {
+            for (String mode : modes) {
+                ConfigurableApplicationContext gateway = startGateway("virtual".equals(mode), stub.port());
+                try {
+                    int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+                    // потоки Tomcat после прогона остаются в пуле, поэтому прирост считается от простаивающего gateway
+                    int idleThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+                    for (int level : levels) {
+                        Result result = run(client, "http://localhost:" + port, hotKey,
+                                level, duration, stub, idleThreads);
+                        print(mode, level, result);
+                    }
+                } finally {
+                    gateway.close();
+                }
+            }
+        } finally {
+            client.close();
+            stub.stop();
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(boolean virtualThreads, int serverPort) {
+        // аргументами командной строки, чтобы перекрыть application.properties и application.yml из jar'ов
+        return new SpringApplicationBuilder(ShareItGateway.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--shareit-server.url=http://localhost:" + serverPort,
+                        "--shareit-server.pool.max-total=" + GATEWAY_MAX_CONNECTIONS,
+                        "--shareit-server.pool.max-per-route=" + GATEWAY_MAX_CONNECTIONS,
+                        // сравниваются режимы потоков, а не сброс нагрузки: bulkhead, лимиты и rate limit не должны отклонять запросы
+                        "--shareit-server.resilience.enabled=false",
+                        "--shareit-gateway.rate-limit.enabled=false",
+                        "--server.tomcat.max-connections=" + GATEWAY_MAX_CONNECTIONS,
+                        "--server.tomcat.accept-count=" + GATEWAY_MAX_CONNECTIONS,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+    }
+
+    // concurrency клиентов шлют запросы друг за другом без пауз; на половине прогона снимается память
+    private static Result run(HttpClient client, String gatewayUrl, boolean hotKey, int concurrency, Duration duration,
+                              ServerStub stub, int idleThreads) throws InterruptedException {
+        long heapBefore = heapAfterGc();
+        stub.resetPeak();
+        long upstreamBefore = stub.total();
+
+        Result result = new Result();
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+        for (int i = 0; i < concurrency; i++) {
+            URI uri = URI.create(gatewayUrl + "/users/" + (hotKey ? 1 : i + 1));
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+            send(client, request, deadline, result, finished);
+        }
+
+        Thread.sleep(duration.toMillis() / 2);
+        result.heapDelta = heapAfterGc() - heapBefore;
+        result.threadsDelta = ManagementFactory.getThreadMXBean().getThreadCount() - idleThreads;
+
+        finished.await();
+        result.elapsedNanos = System.nanoTime() - startedAt;
+        result.peakInFlight = stub.peak();
+        result.upstreamRequests = stub.total() - upstreamBefore;
+        return result;
+    }
+
+    private static void send(HttpClient client, HttpRequest request, long deadline,
+                             Result result, CountDownLatch finished) {
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            result.record(System.nanoTime() - start, error == null && response.statusCode() == 200);
+            if (System.nanoTime() < deadline) {
+                send(client, request, deadline, result, finished);
+            } else {
+                finished.countDown();
+            }
+        });
+    }
+
+    private static void print(String mode, int concurrency, Result result) {
+        long[] latencies = result.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        int inFlight = Math.max(1, result.peakInFlight);
+
+        System.out.printf("%-8s %11d %9.0f %8.1f %8.1f %7d %8.0f%% %9d %8d %15.1f %16.1f%n",
+                mode,
+                concurrency,
+                latencies.length / (result.elapsedNanos / 1e9),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                result.errors.sum(),
+                100.0 * result.upstreamRequests / Math.max(1, latencies.length),
+                result.peakInFlight,
+                result.threadsDelta,
+                result.heapDelta / 1024.0 / inFlight,
+                Math.max(0, result.threadsDelta) * stackSizeKb() / (double) inFlight);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * quantile))] / 1e6;
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Зарезервированный размер стека платформенного потока: -Xss из аргументов JVM или значение по умолчанию
+    private static long stackSizeKb() {
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-Xss")) {
+                String size = arg.substring(4).toLowerCase();
+                long value = Long.parseLong(size.replaceAll("[kmg]$", ""));
+                return switch (size.charAt(size.length() - 1)) {
+                    case 'k' -> value;
+                    case 'm' -> value * 1024;
+                    case 'g' -> value * 1024 * 1024;
+                    default -> value / 1024;
+                };
+            }
+        }
+        return DEFAULT_STACK_KB;
+    }
+
+    private static final class Result {
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos;
+        private long heapDelta;
+        private int threadsDelta;
+        private int peakInFlight;
+        private long upstreamRequests;
+
+        void record(long latencyNanos, boolean success) {
+            latencies.add(latencyNanos);
+            if (!success) {
+                errors.increment();
+            }
+        }
+    }
+
+    // server с фиксированной задержкой ответа: ответ отправляется по таймеру, поток на запрос не занимается
+    private static final class ServerStub {
+
+        private static final byte[] USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@load.example.com\"}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        private final HttpServer server;
+        private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final LongAdder total = new LongAdder();
+
+        ServerStub(Duration latency) throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), GATEWAY_MAX_CONNECTIONS);
+            server.createContext("/users", exchange -> {
+                total.increment();
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                scheduler.schedule(() -> respond(exchange), latency.toMillis(), TimeUnit.MILLISECONDS);
+            });
+            server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        int peak() {
+            return peakInFlight.get();
+        }
+
+        long total() {
+            return total.sum();
+        }
+
+        void resetPeak() {
+            peakInFlight.set(inFlight.get());
+        }
+
+        void stop() {
+            server.stop(0);
+            scheduler.shutdownNow();
+        }
+
+        private void respond(HttpExchange exchange) {
+            try (exchange) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, USER.length);
+                exchange.getResponseBody().write(USER);
+            } catch (IOException e) {
+                // gateway закрыл соединение, ответ никому не нужен
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Поиск по индексу ItemSearchIndex на каталогах от 10 тысяч до миллиона вещей.
+// Индекс заполняется напрямую, без контекста и БД: миллион вещей с бронированиями в H2 не поместился бы в форк,
+// а время поиска от них не зависит. SampleTime даёт перцентили: p99 должен оставаться ровным с ростом каталога.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ItemSearchBenchmark {
+
+    // Словарь растёт вместе с каталогом, и слово встречается примерно в десятке вещей при любом размере:
+    // с фиксированным словарём, как в ShareItDataset, время поиска росло бы вместе с размером ответа, а не индекса
+    private static final int ITEMS_PER_WORD = 10;
+    private static final int WORDS_PER_ITEM = 5;
+
+    @Param({"10000", "100000", "1000000"})
+    public int items;
+
+    private ItemSearchIndex index;
+    private int dictionarySize;
+    private String word;
+    private String prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // репозиторий нужен только для warmUp, здесь индекс заполняется сам
+        index = new ItemSearchIndex(null);
+        dictionarySize = items * WORDS_PER_ITEM / ITEMS_PER_WORD;
+
+        Random random = new Random(42);
+        for (long id = 1; id <= items; id++) {
+            Item item = new Item();
+            item.setId(id);
+            item.setName(word(random) + " " + word(random));
+            item.setDescription(word(random) + " " + word(random) + " " + word(random));
+            item.setAvailable(true);
+            item.setOwner(1L);
+            index.index(item);
+        }
+
+        word = word(random);
+        // без последней цифры: каждый префикс покрывает десяток слов словаря
+        String first = word(random);
+        String second = word(random);
+        prefixes = first.substring(0, first.length() - 1) + " " + second.substring(0, second.length() - 1);
+    }
+
+    @Benchmark
+    public Set<Long> searchByWord() {
+        return index.search(word);
+    }
+
+    @Benchmark
+    public Set<Long> searchByPrefixes() {
+        return index.search(prefixes);
+    }
+
+    // Слова вида "слово1000123": общий префикс "слово" и номер одной длины
+    private String word(Random random) {
+        return "слово" + (1_000_000 + random.nextInt(dictionarySize));
+    }
+}
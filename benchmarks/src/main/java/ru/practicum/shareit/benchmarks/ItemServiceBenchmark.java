@@ -0,0 +1,44 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.server.item.dto.ItemResponseDto;
+import ru.practicum.shareit.server.item.dto.ItemWithCommentsResponseDto;
+import ru.practicum.shareit.server.item.service.ItemService;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemServiceBenchmark {
+
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItDataset dataset) {
+        itemService = dataset.bean(ItemService.class);
+    }
+
+    // Все вещи владельца с датами бронирований и комментариями
+    @Benchmark
+    public Collection<ItemWithCommentsResponseDto> getItemsByUser() {
+        return itemService.getItemsByUser(ShareItDataset.HOT_OWNER_ID);
+    }
+
+    // Поиск по одному слову и по префиксу из двух слов; SampleTime даёт перцентили, в том числе p99
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public Collection<ItemResponseDto> searchItemsByWord() {
+        return itemService.searchItems("дрель");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public Collection<ItemResponseDto> searchItemsByPrefixes() {
+        return itemService.searchItems("аккум дрел");
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.server.pagination.KeysetPage;
+import ru.practicum.shareit.server.request.dto.RequestWithItemsResponseDto;
+import ru.practicum.shareit.server.request.service.RequestService;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private RequestService requestService;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItDataset dataset) {
+        requestService = dataset.bean(RequestService.class);
+    }
+
+    // Первая страница запросов других пользователей вместе с вещами, созданными в ответ
+    @Benchmark
+    public KeysetPage<RequestWithItemsResponseDto> getOtherUsersRequests() {
+        return requestService.getOtherUsersRequests(ShareItDataset.VIEWER_ID, null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.server.ShareItServer;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// Контекст server на встроенной H2, заполненный синтетическими данными заданного размера.
+// Общий для всех бенчмарков одного запуска (одного форка).
+// Пользователи 1..OWNERS - владельцы вещей, остальные - арендаторы и авторы запросов и комментариев.
+@State(Scope.Benchmark)
+public class ShareItDataset {
+
+    public static final int USERS = 200;
+    public static final int OWNERS = 20;
+
+    // Владелец, через которого идут запросы: у него items / OWNERS вещей
+    public static final long HOT_OWNER_ID = 1L;
+
+    // Пользователь, который смотрит чужие запросы
+    public static final long VIEWER_ID = USERS;
+
+    private static final String[] WORDS = {
+        "дрель", "перфоратор", "шуруповёрт", "пила", "лобзик", "болгарка", "рубанок", "стремянка",
+        "палатка", "спальник", "котелок", "велосипед", "самокат", "лыжи", "сноуборд", "коньки",
+        "проектор", "колонка", "фотоаппарат", "объектив", "штатив", "квадрокоптер", "гитара", "синтезатор",
+        "аккумуляторная", "сетевая", "лёгкая", "профессиональная", "детская", "туристическая", "новая", "мощная"
+    };
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000", "50000"})
+    public int items;
+
+    @Param({"10"})
+    public int bookingsPerItem;
+
+    @Param({"3"})
+    public int commentsPerItem;
+
+    // Доля вещей, созданных в ответ на запрос
+    @Param({"0.2"})
+    public double requestedItemsShare;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // аргументами командной строки: свойства по умолчанию не перекрыли бы datasource из application.properties
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        seed(context.getBean(JdbcTemplate.class));
+
+        // индекс поиска прогревается на старте приложения, когда база ещё пустая
+        context.getBean(ItemSearchIndex.class).warmUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{(long) i, "user" + i, "user" + i + "@bench.example.com"});
+        }
+        batch(jdbc, "INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        int requestsCount = Math.max(1, (int) (items * requestedItemsShare));
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 0; i < requestsCount; i++) {
+            requests.add(new Object[]{(long) (i + 1), "Нужна " + word(random) + " " + word(random),
+                    renter(random), Timestamp.valueOf(now.minusMinutes(i))});
+        }
+        batch(jdbc, "INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)", requests);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Long request = i < requestsCount ? (long) (i + 1) : null;
+            itemRows.add(new Object[]{(long) (i + 1), word(random) + " " + word(random), word(random) + " " + word(random) + " " + word(random),
+                    random.nextInt(10) != 0, (long) (i % OWNERS + 1), request});
+        }
+        batch(jdbc, "INSERT INTO items (id, name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)", itemRows);
+
+        // брони каждой вещи идут подряд по неделе, половина в прошлом, половина в будущем
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (long itemId = 1; itemId <= items; itemId++) {
+            for (int b = 0; b < bookingsPerItem; b++) {
+                LocalDateTime start = now.plusWeeks(b - bookingsPerItem / 2);
+                bookings.add(new Object[]{(long) bookings.size() + 1, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(3)),
+                        itemId, renter(random), random.nextInt(5) == 0 ? "WAITING" : "APPROVED"});
+            }
+            for (int c = 0; c < commentsPerItem; c++) {
+                comments.add(new Object[]{(long) comments.size() + 1, "Отзыв " + c, itemId, renter(random), Timestamp.valueOf(now.minusDays(c))});
+            }
+        }
+        batch(jdbc, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)", bookings);
+        batch(jdbc, "INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)", comments);
+
+        // id заданы явно, последовательности Hibernate сдвигаются за них
+        restartSequence(jdbc, "users_seq", USERS);
+        restartSequence(jdbc, "requests_seq", requestsCount);
+        restartSequence(jdbc, "items_seq", items);
+        restartSequence(jdbc, "bookings_seq", bookings.size());
+        restartSequence(jdbc, "comments_seq", comments.size());
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    private static void restartSequence(JdbcTemplate jdbc, String sequence, long lastId) {
+        jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + 1));
+    }
+
+    private static long renter(Random random) {
+        return OWNERS + 1 + random.nextInt(USERS - OWNERS);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
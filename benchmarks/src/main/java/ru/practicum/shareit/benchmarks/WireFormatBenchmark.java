@@ -0,0 +1,88 @@
+package ru.practicum.shareit.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.item.dto.ItemWithCommentsResponseDto;
+import ru.practicum.shareit.server.item.service.ItemService;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Цена одного ответа server на пути к gateway: сериализация DTO server и разбор в DTO gateway,
+// в JSON и в Smile (см. shareit-server.wire.format). Размер тел на проводе печатается при запуске.
+// Аллокации на запрос: -Djmh.args="WireFormatBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private JavaType gatewayItems;
+    private JavaType gatewayBookings;
+
+    private Collection<ItemWithCommentsResponseDto> items;
+    private List<BookingResponseDto> bookings;
+    private byte[] itemsBody;
+    private byte[] bookingsBody;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItDataset dataset) throws IOException {
+        mapper = "smile".equals(format)
+                ? dataset.bean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper()
+                : dataset.bean(ObjectMapper.class);
+        gatewayItems = mapper.getTypeFactory().constructCollectionType(List.class,
+                ru.practicum.shareit.gateway.item.dto.ItemWithCommentsResponseDto.class);
+        gatewayBookings = mapper.getTypeFactory().constructCollectionType(List.class,
+                ru.practicum.shareit.gateway.booking.dto.BookingResponseDto.class);
+
+        items = dataset.bean(ItemService.class).getItemsByUser(ShareItDataset.HOT_OWNER_ID);
+        bookings = dataset.bean(BookingService.class)
+                .getAllOwnerBookingAtState(ShareItDataset.HOT_OWNER_ID, "ALL", null, PAGE_SIZE)
+                .getContent();
+        itemsBody = mapper.writeValueAsBytes(items);
+        bookingsBody = mapper.writeValueAsBytes(bookings);
+        System.out.printf("%n%s: items of owner %d bytes, bookings page %d bytes%n",
+                format, itemsBody.length, bookingsBody.length);
+    }
+
+    // Вещи владельца с комментариями: server кодирует, gateway разбирает
+    @Benchmark
+    public List<?> itemsRoundTrip() throws IOException {
+        return mapper.readValue(mapper.writeValueAsBytes(items), gatewayItems);
+    }
+
+    @Benchmark
+    public List<?> bookingsRoundTrip() throws IOException {
+        return mapper.readValue(mapper.writeValueAsBytes(bookings), gatewayBookings);
+    }
+
+    // Стороны по отдельности: сериализация на server и разбор на gateway
+    @Benchmark
+    public byte[] itemsEncode() throws IOException {
+        return mapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public List<?> itemsDecode() throws IOException {
+        return mapper.readValue(itemsBody, gatewayItems);
+    }
+
+    @Benchmark
+    public List<?> bookingsDecode() throws IOException {
+        return mapper.readValue(bookingsBody, gatewayBookings);
+    }
+}
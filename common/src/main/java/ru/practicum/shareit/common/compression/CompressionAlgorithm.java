@@ -0,0 +1,62 @@
+package ru.practicum.shareit.common.compression;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Алгоритмы сжатия ответа из JDK и их имена в Content-Encoding
+@Getter
+@RequiredArgsConstructor
+public enum CompressionAlgorithm {
+
+    GZIP("gzip") {
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out);
+        }
+    },
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream compress(OutputStream out) {
+            return new DeflaterOutputStream(out);
+        }
+    };
+
+    private final String encoding;
+
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    // Принимает ли клиент это сжатие: кодировка есть в Accept-Encoding и не выключена через q=0.
+    // Неразборчивый q считается отсутствующим: из-за кривого заголовка ответ не должен падать с 500
+    public boolean acceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(encoding)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.common.compression;
+
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+// Настройки ResponseCompressionFilter. Привязываются в каждом модуле со своим префиксом:
+// shareit.compression.* у server, shareit-gateway.compression.* у gateway
+@Data
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    private CompressionAlgorithm algorithm = CompressionAlgorithm.GZIP;
+
+    // Ответы меньше порога уходят как есть: выигрыш в байтах не окупает время сжатия
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    private List<String> mimeTypes = List.of("application/json", "application/x-jackson-smile");
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.common.compression;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Сжимает ответы не меньше min-response-size, если клиент принимает выбранный алгоритм.
+// Сэкономленные байты пишутся в метрику metricName{uri,encoding}; uri - шаблон пути из handler mapping
+// (/items/{itemId}), без него - UNKNOWN, чтобы число серий не росло с числом id.
+// Регистрируется в каждом модуле со своим порядком и именем метрики (см. CompressionConfig).
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+    private static final String WEAK_PREFIX = "W/";
+
+    private final CompressionProperties properties;
+    private final List<MediaType> mimeTypes;
+    private final MeterRegistry meterRegistry;
+    private final String metricName;
+
+    public ResponseCompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry, String metricName) {
+        this.properties = properties;
+        this.mimeTypes = MediaType.parseMediaTypes(properties.getMimeTypes());
+        this.meterRegistry = meterRegistry;
+        this.metricName = metricName;
+    }
+
+    // Потоковые загрузки (NDJSON-импорт) отвечают потоком по мере обработки: буферизовать его для сжатия нельзя
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !properties.getAlgorithm().acceptedBy(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                || isStreamingUpload(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        // Ответ зависит от Accept-Encoding, даже если сжат не был
+        wrapper.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        chain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (body.length >= properties.getMinResponseSize().toBytes()
+                && isCompressible(wrapper.getContentType())
+                && !wrapper.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            byte[] compressed = compress(body);
+            if (compressed.length < body.length) {
+                wrapper.resetBuffer();
+                wrapper.setHeader(HttpHeaders.CONTENT_ENCODING, properties.getAlgorithm().getEncoding());
+                weakenETag(wrapper);
+                wrapper.getOutputStream().write(compressed);
+                saved(request).record(body.length - compressed.length);
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    // Строгий ETag обещает совпадение байт, а сжатое тело отличается от несжатого с тем же тегом.
+    // Слабый тег по-прежнему совпадает с If-None-Match: для него сравнение слабое, и 304 продолжают работать.
+    private static void weakenETag(HttpServletResponse response) {
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        if (eTag != null && !eTag.startsWith(WEAK_PREFIX)) {
+            response.setHeader(HttpHeaders.ETAG, WEAK_PREFIX + eTag);
+        }
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+    }
+
+    private byte[] compress(byte[] body) throws IOException {
+        FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(body.length / 4 + 64);
+        try (OutputStream out = properties.getAlgorithm().compress(buffer)) {
+            out.write(body);
+        }
+        return buffer.toByteArrayUnsafe();
+    }
+
+    private DistributionSummary saved(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return DistributionSummary.builder(metricName)
+                .description("Bytes saved by response compression")
+                .baseUnit("bytes")
+                .tag("uri", pattern != null ? pattern.toString() : UNKNOWN_URI)
+                .tag("encoding", properties.getAlgorithm().getEncoding())
+                .register(meterRegistry);
+    }
+
+    private static boolean isStreamingUpload(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.common.compression;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionAlgorithmTest {
+
+    @Test
+    void encodingListedInAcceptEncodingIsAccepted() {
+        assertTrue(CompressionAlgorithm.GZIP.acceptedBy("deflate, GZIP;q=0.5"));
+        assertTrue(CompressionAlgorithm.DEFLATE.acceptedBy("gzip, deflate"));
+    }
+
+    @Test
+    void missingOrRefusedEncodingIsNotAccepted() {
+        assertFalse(CompressionAlgorithm.GZIP.acceptedBy(null));
+        assertFalse(CompressionAlgorithm.GZIP.acceptedBy("deflate, br"));
+        assertFalse(CompressionAlgorithm.GZIP.acceptedBy("gzip;q=0.0"));
+    }
+
+    @Test
+    void malformedQualityDoesNotFail() {
+        assertTrue(CompressionAlgorithm.GZIP.acceptedBy("gzip;q=abc"));
+        assertTrue(CompressionAlgorithm.GZIP.acceptedBy("gzip;q="));
+    }
+}
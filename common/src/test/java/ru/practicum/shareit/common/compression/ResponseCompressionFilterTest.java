@@ -0,0 +1,208 @@
+package ru.practicum.shareit.common.compression;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private static final String LARGE_BODY = "[" + "{\"name\":\"Дрель\",\"available\":true},".repeat(200) + "{}]";
+    private static final String METRIC = "shareit.response.compression.saved";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Что выставляет обработчик запроса: шаблон пути (как DispatcherServlet) и ETag (как ShallowEtagHeaderFilter)
+    private String pattern = "/items/{itemId}/availability";
+    private String eTag;
+    private boolean enabled = true;
+
+    @Test
+    void largeJsonIsCompressedWhenClientAcceptsGzip() throws Exception {
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items/42/availability", "gzip, deflate"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertEquals(LARGE_BODY, decompress(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+
+        double saved = meterRegistry.get(METRIC)
+                .tag("uri", "/items/{itemId}/availability")
+                .tag("encoding", "gzip")
+                .summary().totalAmount();
+        assertEquals(LARGE_BODY.getBytes(StandardCharsets.UTF_8).length - response.getContentAsByteArray().length, saved);
+    }
+
+    @Test
+    void deflateIsUsedWhenConfigured() throws Exception {
+        MockHttpServletResponse response = filter("deflate")
+                .apply(request("/bookings/owner", "gzip, deflate"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_BODY, decompress(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+    }
+
+    @Test
+    void smallResponseIsNotCompressed() throws Exception {
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items/1", "gzip"), MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}");
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals("{\"id\":1}", response.getContentAsString());
+    }
+
+    @Test
+    void responseIsNotCompressedWithoutAcceptEncoding() throws Exception {
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items", null), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+        assertEquals(LARGE_BODY, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodingRefusedWithZeroQualityIsNotUsed() throws Exception {
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items", "gzip;q=0, deflate"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void notListedContentTypeIsNotCompressed() throws Exception {
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items", "gzip"), MediaType.TEXT_HTML_VALUE, LARGE_BODY);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_BODY, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void nothingIsCompressedWhenDisabled() throws Exception {
+        enabled = false;
+
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items", "gzip"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void malformedQualityIsTreatedAsAbsent() throws Exception {
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items", "gzip;q=abc"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void strongETagIsWeakenedWhenCompressed() throws Exception {
+        eTag = "\"v1\"";
+
+        MockHttpServletResponse compressed = filter("gzip")
+                .apply(request("/items/1", "gzip"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+        MockHttpServletResponse plain = filter("gzip")
+                .apply(request("/items/1", "gzip"), MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}");
+
+        assertEquals("W/\"v1\"", compressed.getHeader(HttpHeaders.ETAG));
+        assertEquals("\"v1\"", plain.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void weakETagIsKeptWhenCompressed() throws Exception {
+        eTag = "W/\"v1\"";
+
+        MockHttpServletResponse response = filter("gzip")
+                .apply(request("/items/1", "gzip"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertEquals("W/\"v1\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    // Без шаблона пути (ответ не из controller'а) сырой uri в метку не попадает
+    @Test
+    void uriWithoutHandlerPatternIsTaggedUnknown() throws Exception {
+        pattern = null;
+
+        filter("gzip").apply(request("/items/42", "gzip"), MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertEquals(1, meterRegistry.find(METRIC).tag("uri", "UNKNOWN").summaries().size());
+        assertEquals(1, meterRegistry.find(METRIC).summaries().size());
+    }
+
+    // Ответ импорта пишется потоком по мере обработки, фильтр его не оборачивает
+    @Test
+    void streamingUploadIsNotBuffered() throws Exception {
+        MockHttpServletRequest request = request("/items/import", "gzip");
+        request.setMethod("POST");
+        request.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        MockHttpServletResponse response = filter("gzip").apply(request, MediaType.APPLICATION_JSON_VALUE, LARGE_BODY);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+        assertEquals(LARGE_BODY, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private FilterCall filter(String algorithm) {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setEnabled(enabled);
+        properties.setAlgorithm(CompressionAlgorithm.valueOf(algorithm.toUpperCase()));
+        ResponseCompressionFilter filter = new ResponseCompressionFilter(properties, meterRegistry, METRIC);
+
+        return (request, contentType, body) -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            FilterChain chain = (req, res) -> {
+                if (pattern != null) {
+                    req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                }
+                if (eTag != null) {
+                    ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, eTag);
+                }
+                res.setContentType(contentType);
+                res.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            };
+            filter.doFilter(request, response, chain);
+            return response;
+        };
+    }
+
+    private static MockHttpServletRequest request(String uri, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static String decompress(InputStream in) throws IOException {
+        try (in) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FilterCall {
+        MockHttpServletResponse apply(MockHttpServletRequest request, String contentType, String body) throws Exception;
+    }
+}
@@ -2,13 +2,17 @@ package ru.practicum.shareit.gateway.booking;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.booking.client.BookingClient;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionsDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.gateway.exception.ValidationException;
+import ru.practicum.shareit.gateway.pagination.KeysetPages;
 
-import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -43,6 +47,17 @@ public class BookingGatewayController {
     }
 
 
+    // Пакет решений владельца: один запрос к серверу вместо запроса на каждое бронирование
+    @PatchMapping("/owner/decisions")
+    List<BookingDecisionResultDto> decideBookings(@RequestHeader("X-Sharer-User-Id")
+                                                  Long userId,
+                                                  @RequestBody
+                                                  @Valid
+                                                  BookingDecisionsDto decisions) {
+        return client.decideBookings(userId, decisions);
+    }
+
+
     @GetMapping("{bookingId}")
     BookingResponseDto getBookingById(@RequestHeader("X-Sharer-User-Id")
                                       Long userId,
@@ -51,22 +66,32 @@ public class BookingGatewayController {
     }
 
     @GetMapping
-    Collection<BookingResponseDto> getAllBookingAtState(
+    ResponseEntity<List<BookingResponseDto>> getAllBookingAtState(
             @RequestHeader("X-Sharer-User-Id")
             Long userId,
             @RequestParam(defaultValue = "ALL")
-            String state
+            String state,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_PAGE_SIZE)
+            Integer size
     ) {
-        return client.getAllBookingAtState(userId, state);
+        KeysetPages.checkPageSize(size);
+        return KeysetPages.relay(client.getAllBookingAtState(userId, state, cursor, size));
     }
 
     @GetMapping("/owner")
-    Collection<BookingResponseDto> getAllOwnerBookingAtState(
+    ResponseEntity<List<BookingResponseDto>> getAllOwnerBookingAtState(
             @RequestHeader("X-Sharer-User-Id")
             Long userId,
             @RequestParam(defaultValue = "ALL")
-            String state
+            String state,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_PAGE_SIZE)
+            Integer size
     ) {
-        return client.getAllOwnerBookingAtState(userId, state);
+        KeysetPages.checkPageSize(size);
+        return KeysetPages.relay(client.getAllOwnerBookingAtState(userId, state, cursor, size));
     }
 }
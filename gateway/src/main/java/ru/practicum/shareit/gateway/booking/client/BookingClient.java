@@ -2,11 +2,14 @@ package ru.practicum.shareit.gateway.booking.client;
 
 import jakarta.validation.Valid;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionsDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingResponseDto;
 
-import java.util.Collection;
+import java.util.List;
 
 
 @FeignClient(
@@ -26,18 +29,27 @@ public interface BookingClient {
             @PathVariable("bookingId") Long bookingId,
             @RequestParam("approved") Boolean approved);
 
+    @PatchMapping("/owner/decisions")
+    List<BookingDecisionResultDto> decideBookings(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestBody BookingDecisionsDto decisions);
+
     @GetMapping("/{bookingId}")
     BookingResponseDto getBookingById(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @PathVariable("bookingId") Long bookingId);
 
     @GetMapping
-    Collection<BookingResponseDto> getAllBookingAtState(
+    ResponseEntity<List<BookingResponseDto>> getAllBookingAtState(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(defaultValue = "ALL") String state);
+            @RequestParam("state") String state,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("size") Integer size);
 
     @GetMapping("/owner")
-    Collection<BookingResponseDto> getAllOwnerBookingAtState(
+    ResponseEntity<List<BookingResponseDto>> getAllOwnerBookingAtState(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(defaultValue = "ALL") String state);
+            @RequestParam("state") String state,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("size") Integer size);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+// Решение владельца по одному бронированию в пакетном PATCH /bookings/owner/decisions
+@Data
+public class BookingDecisionDto {
+
+    @NotNull
+    private Long bookingId;
+
+    @NotNull
+    private Boolean approved;
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import lombok.Data;
+
+@Data
+public class BookingDecisionResultDto {
+
+    private Long bookingId;
+    private BookingDecisionOutcome outcome;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingDecisionsDto {
+
+    public static final int MAX_DECISIONS = 500;
+
+    @NotEmpty
+    @Size(max = MAX_DECISIONS)
+    private List<@Valid @NotNull BookingDecisionDto> decisions;
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.cache.dto.CacheInvalidationDto;
+import ru.practicum.shareit.gateway.exception.ForbiddenException;
+import ru.practicum.shareit.gateway.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+// Канал, через который server сообщает об изменениях данных
+@RestController
+@RequestMapping("/cache/invalidations")
+@AllArgsConstructor
+public class CacheInvalidationController {
+
+    private static final String TOKEN_HEADER = "X-Cache-Invalidation-Token";
+
+    private final GatewayResponseCache cache;
+    private final ResponseCacheProperties properties;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void invalidate(
+            @RequestBody
+            CacheInvalidationDto invalidation,
+            @RequestHeader(value = TOKEN_HEADER, required = false)
+            String token) {
+
+        String expectedToken = properties.getInvalidationToken();
+        // без заданного токена уведомления не принимаются вовсе
+        if (token == null || expectedToken.isBlank() || !MessageDigest.isEqual(
+                expectedToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Invalid cache invalidation token");
+        }
+
+        if (invalidation.getRegion() == null) {
+            throw new ValidationException("Cache region must be specified");
+        }
+
+        cache.invalidate(invalidation.getRegion(), invalidation.getIds() == null ? List.of() : invalidation.getIds());
+    }
+}
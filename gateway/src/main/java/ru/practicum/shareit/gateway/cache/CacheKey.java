@@ -0,0 +1,20 @@
+package ru.practicum.shareit.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Ключ ответа: путь с отсортированными параметрами и пользователь, для которого ответ построен.
+// resourceId - id вещи или запроса из пути, null для списков и поиска.
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class CacheKey {
+
+    private final CacheRegion region;
+    private final Long resourceId;
+    private final String uri;
+    private final String userId;
+}
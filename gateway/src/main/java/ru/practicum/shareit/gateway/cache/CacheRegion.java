@@ -0,0 +1,11 @@
+package ru.practicum.shareit.gateway.cache;
+
+// Группы закэшированных ответов, которые server сбрасывает вместе
+public enum CacheRegion {
+    // GET /items/{itemId}, /items/search
+    ITEMS,
+    // GET /requests, /requests/all, /requests/{requestId}
+    REQUESTS,
+    // ответы о бронированиях не кэшируются, но server присылает и их изменения (для своих ETag)
+    BOOKINGS
+}
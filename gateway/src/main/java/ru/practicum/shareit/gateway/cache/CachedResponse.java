@@ -0,0 +1,15 @@
+package ru.practicum.shareit.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Тело успешного ответа server и заголовки, которые нужно вернуть вместе с ним
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+
+    private final String contentType;
+    private final String nextCursor;
+    private final String eTag;
+    private final byte[] body;
+}
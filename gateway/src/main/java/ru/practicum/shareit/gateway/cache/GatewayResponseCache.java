@@ -0,0 +1,118 @@
+package ru.practicum.shareit.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Кэш ответов server с ограничением по размеру и TTL и сбросом по группам.
+// Сброс не обходит кэш, а меняет поколения: поколение списков группы растёт при любом сбросе в ней,
+// поколение объекта - когда он назван по id, поколение всей группы - при сбросе без id.
+// Ответ хранится с поколением, взятым до запроса к server, и при чтении с другим поколением считается
+// устаревшим: ответ, запрошенный до сброса, а полученный после, из кэша не отдаётся.
+// Поколений объектов в памяти не больше maximum-size на группу: вытеснение поколения объекта меняет
+// поколение всей группы, иначе объект вернулся бы к поколению 0 и его старый ответ снова стал бы годным.
+@Slf4j
+@Component
+public class GatewayResponseCache {
+
+    private final Cache<CacheKey, Entry> cache;
+    private final Map<CacheRegion, RegionGenerations> generations = new EnumMap<>(CacheRegion.class);
+
+    public GatewayResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+
+        for (CacheRegion region : CacheRegion.values()) {
+            generations.put(region, new RegionGenerations(properties.getMaximumSize()));
+        }
+
+        if (properties.isEnabled() && !properties.isActive()) {
+            log.warn("Gateway response cache is disabled: shareit-gateway.response-cache.invalidation-token is not set");
+        }
+    }
+
+    public CachedResponse get(CacheKey key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.generation.equals(generation(key))) {
+            cache.asMap().remove(key, entry);
+            return null;
+        }
+        return entry.response;
+    }
+
+    // Поколение, с которым нужно положить ответ: берётся до запроса к server
+    public Generation generation(CacheKey key) {
+        RegionGenerations region = generations.get(key.getRegion());
+        if (key.getResourceId() == null) {
+            return new Generation(region.lists.get(), 0);
+        }
+        // поколение объекта читается раньше поколения группы: если его уже вытеснили, поколение группы уже выросло
+        long resource = region.resources.asMap().getOrDefault(key.getResourceId(), 0L);
+        return new Generation(region.all.get(), resource);
+    }
+
+    public void put(CacheKey key, CachedResponse response, Generation generation) {
+        if (generation.equals(generation(key))) {
+            cache.put(key, new Entry(response, generation));
+        }
+    }
+
+    // Сбрасывает ответы по перечисленным id и все списки группы; без id - всю группу
+    public void invalidate(CacheRegion region, Collection<Long> ids) {
+        RegionGenerations regionGenerations = generations.get(region);
+
+        regionGenerations.lists.incrementAndGet();
+        if (ids.isEmpty()) {
+            regionGenerations.all.incrementAndGet();
+        }
+        ids.forEach(id -> regionGenerations.resources.asMap().merge(id, 1L, Long::sum));
+        log.debug("Gateway response cache invalidated: region={}, ids={}", region, ids);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Generation {
+        private final long region;
+        private final long resource;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final CachedResponse response;
+        private final Generation generation;
+    }
+
+    private static class RegionGenerations {
+        private final AtomicLong lists = new AtomicLong();
+        private final AtomicLong all = new AtomicLong();
+        private final Cache<Long, Long> resources;
+
+        RegionGenerations(long maxResources) {
+            // evictionListener вызывается в той же атомарной операции, что удаляет поколение; вытеснение идёт
+            // в потоке записи, без отложенной очистки в общем пуле
+            resources = Caffeine.newBuilder()
+                    .maximumSize(maxResources)
+                    .executor(Runnable::run)
+                    .<Long, Long>evictionListener((id, generation, cause) -> all.incrementAndGet())
+                    .build();
+        }
+    }
+}
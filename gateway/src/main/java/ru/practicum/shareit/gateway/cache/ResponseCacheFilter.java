@@ -0,0 +1,139 @@
+package ru.practicum.shareit.gateway.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import ru.practicum.shareit.gateway.pagination.KeysetPages;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Отдаёт повторные GET кэшируемых маршрутов из GatewayResponseCache, не обращаясь к server.
+// Кэшируются только ответы 200 вместе с ETag server; если If-None-Match клиента совпадает с ним,
+// из кэша уходит 304 без тела. X-Cache в ответе показывает, был ли он взят из кэша.
+@Component
+@Order(ResponseCacheFilter.ORDER)
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    // Порядок важен: /items/search и /requests/all подходят и под шаблон с id
+    private static final List<Route> ROUTES = List.of(
+            new Route(PathPatternParser.defaultInstance.parse("/items/search"), CacheRegion.ITEMS, null),
+            new Route(PathPatternParser.defaultInstance.parse("/items/{id}"), CacheRegion.ITEMS, "id"),
+            new Route(PathPatternParser.defaultInstance.parse("/requests"), CacheRegion.REQUESTS, null),
+            new Route(PathPatternParser.defaultInstance.parse("/requests/all"), CacheRegion.REQUESTS, null),
+            new Route(PathPatternParser.defaultInstance.parse("/requests/{id}"), CacheRegion.REQUESTS, "id"));
+
+    private final GatewayResponseCache cache;
+    private final ResponseCacheProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isActive() || !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CacheKey key = keyOf(request);
+        if (key == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            response.setHeader(CACHE_STATUS_HEADER, "HIT");
+            if (cached.getETag() != null) {
+                response.setHeader(HttpHeaders.ETAG, cached.getETag());
+                if (new ServletWebRequest(request, response).checkNotModified(cached.getETag())) {
+                    return;
+                }
+            }
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(cached.getContentType());
+            if (cached.getNextCursor() != null) {
+                response.setHeader(KeysetPages.NEXT_CURSOR_HEADER, cached.getNextCursor());
+            }
+            response.setContentLength(cached.getBody().length);
+            response.getOutputStream().write(cached.getBody());
+            return;
+        }
+
+        GatewayResponseCache.Generation generation = cache.generation(key);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpStatus.OK.value()) {
+            cache.put(key, new CachedResponse(wrapper.getContentType(), wrapper.getHeader(KeysetPages.NEXT_CURSOR_HEADER),
+                    wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray()), generation);
+        }
+        wrapper.setHeader(CACHE_STATUS_HEADER, "MISS");
+        wrapper.copyBodyToResponse();
+    }
+
+    private CacheKey keyOf(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+
+        for (Route route : ROUTES) {
+            PathPattern.PathMatchInfo match = route.getPattern().matchAndExtract(path);
+            if (match == null) {
+                continue;
+            }
+
+            Long resourceId = null;
+            if (route.getIdVariable() != null) {
+                try {
+                    resourceId = Long.valueOf(match.getUriVariables().get(route.getIdVariable()));
+                } catch (NumberFormatException e) {
+                    // некорректный id: запрос уйдёт в server и получит ошибку
+                    return null;
+                }
+            }
+            return new CacheKey(route.getRegion(), resourceId,
+                    request.getRequestURI() + "?" + sortedParameters(request), request.getHeader(USER_HEADER));
+        }
+        return null;
+    }
+
+    private static String sortedParameters(HttpServletRequest request) {
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        return parameters.entrySet().stream()
+                .map(parameter -> parameter.getKey() + "=" + Arrays.toString(parameter.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Route {
+        private final PathPattern pattern;
+        private final CacheRegion region;
+        private final String idVariable;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.gateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки кэша ответов gateway (shareit-gateway.response-cache.*)
+@Data
+@ConfigurationProperties(prefix = "shareit-gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Ответ живёт в кэше не дольше ttl, даже если уведомление server о сбросе потерялось
+    private Duration ttl = Duration.ofSeconds(30);
+
+    private long maximumSize = 10000;
+
+    // Токен, с которым server присылает уведомления о сбросе. Без него уведомления не принимаются
+    // (иначе кто угодно мог бы сбрасывать кэш), поэтому и сам кэш не включается
+    private String invalidationToken = "";
+
+    public boolean isActive() {
+        return enabled && !invalidationToken.isBlank();
+    }
+}
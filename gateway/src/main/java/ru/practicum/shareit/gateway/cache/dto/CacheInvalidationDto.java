@@ -0,0 +1,15 @@
+package ru.practicum.shareit.gateway.cache.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.gateway.cache.CacheRegion;
+
+import java.util.Collection;
+import java.util.List;
+
+// Уведомление server об изменении данных: пустой список id - сбросить всю группу
+@Data
+public class CacheInvalidationDto {
+
+    private CacheRegion region;
+    private Collection<Long> ids = List.of();
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.gateway.coalescing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.gateway.cache.ResponseCacheFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Одинаковые GET, пришедшие, пока такой же запрос ещё ждёт ответа server, не идут в server сами,
+// а получают ответ первого (single-flight). Одинаковые - тот же путь с параметрами, пользователь
+// (X-Sharer-User-Id) и заголовки, от которых зависит ответ: ответы разных пользователей не смешиваются.
+// Стоит после ResponseCacheFilter: схлопываются только промахи кэша и некэшируемые маршруты.
+// Сколько запросов получили чужой ответ - метрика gateway.requests.coalesced.
+@Component
+@Order(RequestCoalescingFilter.ORDER)
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = ResponseCacheFilter.ORDER + 1;
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final SingleFlight<String, CapturedResponse> flights = new SingleFlight<>();
+
+    private final boolean enabled;
+
+    public RequestCoalescingFilter(@Value("${shareit-gateway.request-coalescing.enabled:true}") boolean enabled,
+                                   MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        FunctionCounter.builder("gateway.requests.coalesced", flights, SingleFlight::sharedCount)
+                .description("GET requests answered with the response of an identical in-flight request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+
+        SingleFlight.Flight<CapturedResponse> flight;
+        try {
+            flight = flights.execute(keyOf(request), () -> {
+                chain.doFilter(request, wrapper);
+                return CapturedResponse.of(wrapper);
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+
+        if (flight.isShared()) {
+            flight.getValue().writeTo(response);
+        } else {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static String keyOf(HttpServletRequest request) {
+        return Stream.of(request.getRequestURI(), request.getQueryString(), request.getHeader(USER_HEADER),
+                        request.getHeader(HttpHeaders.ACCEPT), request.getHeader(HttpHeaders.IF_NONE_MATCH))
+                .map(part -> Objects.toString(part, ""))
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.gateway.coalescing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Схлопывание одинаковых параллельных вызовов: пока вызов по ключу выполняется, остальные вызовы
+// с тем же ключом не выполняются, а ждут его и получают тот же результат или ту же ошибку.
+// Завершённый вызов сразу убирается из таблицы: результат не кэшируется, следующий вызов пойдёт заново.
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder shared = new LongAdder();
+
+    public Flight<V> execute(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+
+        if (running != null) {
+            shared.increment();
+            return new Flight<>(await(running), true);
+        }
+
+        try {
+            V value = call.call();
+            own.complete(value);
+            return new Flight<>(value, false);
+        } catch (Exception | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // Сколько вызовов получили чужой результат вместо своего выполнения
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Flight<V> {
+        private final V value;
+        // результат получен от вызова, начатого другим потоком
+        private final boolean shared;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.gateway.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.common.compression.CompressionProperties;
+import ru.practicum.shareit.common.compression.ResponseCompressionFilter;
+import ru.practicum.shareit.gateway.ratelimit.RateLimitFilter;
+
+// Сжатие ответов gateway (shareit-gateway.compression.*). Фильтр стоит снаружи остальных фильтров gateway,
+// поэтому кэш ответов хранит и отдаёт несжатые тела.
+@Configuration
+public class CompressionConfig {
+
+    public static final int ORDER = RateLimitFilter.ORDER - 1;
+
+    @Bean
+    @ConfigurationProperties(prefix = "shareit-gateway.compression")
+    public CompressionProperties compressionProperties() {
+        return new CompressionProperties();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(
+            CompressionProperties compressionProperties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCompressionFilter(compressionProperties, meterRegistry, "gateway.response.compression.saved"));
+        registration.setOrder(ORDER);
+        return registration;
+    }
+}
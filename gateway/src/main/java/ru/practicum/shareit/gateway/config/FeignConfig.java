@@ -1,16 +1,170 @@
 package ru.practicum.shareit.gateway.config;
 
 import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
 import feign.hc5.ApacheHttp5Client;
+import feign.optionals.OptionalDecoder;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.gateway.ShareItGateway;
+import ru.practicum.shareit.gateway.resilience.ResilienceProperties;
+import ru.practicum.shareit.gateway.resilience.ResilientClient;
 
+import java.util.Collection;
+
+// Feign-клиенты включаются здесь, а не на ShareItGateway: иначе их пытались бы создать и срезы
+// контекста в тестах (@JsonTest), в которых нет автоконфигурации Feign
 @Configuration
+@EnableFeignClients(basePackageClasses = ShareItGateway.class)
+@EnableConfigurationProperties(FeignPoolProperties.class)
 public class FeignConfig {
 
-    // Переопределен клиент, так как используемый по-умолчанию не поддерживает PATCH
+    // Пул постоянных соединений к server. Пул по умолчанию даёт 5 соединений на адрес,
+    // и запросы gateway выстраивались бы в очередь за соединением.
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(FeignPoolProperties pool) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxTotal())
+                .setMaxConnPerRoute(pool.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(pool.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(pool.getResponseTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(pool.getValidateAfterInactivity()))
+                        .setTimeToLive(TimeValue.of(pool.getTimeToLive()))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(PoolingHttpClientConnectionManager feignConnectionManager,
+                                               FeignPoolProperties pool,
+                                               WireFormatProperties wire) {
+        HttpClientBuilder builder = HttpClients.custom();
+        if (!wire.isCompression()) {
+            builder.disableContentCompression();
+        }
+        return builder
+                .setConnectionManager(feignConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(pool.getConnectionRequestTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(pool.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.getIdleEvictAfter()))
+                .build();
+    }
+
+    // Переопределен клиент, так как используемый по-умолчанию не поддерживает PATCH.
+    // Вызовы идут через circuit breaker, bulkhead и адаптивный лимит своего Feign-клиента (ResilientClient)
     @Bean
-    public Client feignClient() {
-        return new ApacheHttp5Client();
+    public Client feignClient(CloseableHttpClient feignHttpClient,
+                              ResilienceProperties resilience,
+                              CircuitBreakerRegistry serverCircuitBreakers,
+                              BulkheadRegistry serverBulkheads,
+                              MeterRegistry meterRegistry) {
+        Client client = new ApacheHttp5Client(feignHttpClient);
+        if (!resilience.isEnabled()) {
+            return client;
+        }
+        return new ResilientClient(client, serverCircuitBreakers, serverBulkheads,
+                resilience.getConcurrencyLimit(), meterRegistry);
+    }
+
+    // Таймауты соединения и ответа Feign выставляет на каждый запрос, поверх настроек клиента
+    @Bean
+    public Request.Options feignOptions(FeignPoolProperties pool) {
+        return new Request.Options(pool.getConnectTimeout(), pool.getResponseTimeout(), true);
+    }
+
+    // Занятые, свободные соединения и ожидающие соединения запросы:
+    // httpcomponents.httpclient.pool.total.connections{state=leased|available}, ...pool.total.pending
+    @Bean
+    public MeterBinder feignPoolMetrics(PoolingHttpClientConnectionManager feignConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(feignConnectionManager, "shareit-server");
+    }
+
+    // If-None-Match клиента уходит в server вместе с GET: на неизменившиеся данные server ответит 304,
+    // не читая их и не сериализуя (ответ 304 переносит клиенту ErrorHandler)
+    @Bean
+    public RequestInterceptor ifNoneMatchForwarder() {
+        return template -> {
+            if (HttpMethod.GET.matches(template.method())
+                    && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+                String ifNoneMatch = attributes.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH);
+                if (ifNoneMatch != null) {
+                    template.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                }
+            }
+        };
+    }
+
+    // Ответы server запрашиваются в формате shareit-server.wire.format (см. WireFormatProperties)
+    @Bean
+    public RequestInterceptor wireFormatAccept(WireFormatProperties wire) {
+        return template -> template.header(HttpHeaders.ACCEPT, wire.getFormat().getAccept());
+    }
+
+    // Тела запросов к server кодируются в том же формате: конвертер выбирается по Content-Type
+    @Bean
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters, WireFormatProperties wire) {
+        Encoder delegate = new SpringEncoder(messageConverters);
+        return (body, bodyType, template) -> {
+            if (!template.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+                template.header(HttpHeaders.CONTENT_TYPE, wire.getFormat().getContentType());
+            }
+            delegate.encode(body, bodyType, template);
+        };
+    }
+
+    // Декодер по умолчанию из FeignClientsConfiguration, который заодно переносит ETag ответа server
+    // в ответ gateway: DTO, которые возвращают Feign-клиенты, заголовков не несут
+    @Bean
+    public Decoder feignDecoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        Decoder delegate = new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(messageConverters, customizers)));
+        return (response, type) -> {
+            relayETag(response.headers().get(HttpHeaders.ETAG));
+            return delegate.decode(response, type);
+        };
+    }
+
+    private static void relayETag(Collection<String> eTags) {
+        if (eTags == null || eTags.isEmpty()) {
+            return;
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null) {
+            attributes.getResponse().setHeader(HttpHeaders.ETAG, eTags.iterator().next());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки пула соединений Feign к server (shareit-server.pool.*)
+@Data
+@ConfigurationProperties(prefix = "shareit-server.pool")
+public class FeignPoolProperties {
+
+    // Всего соединений и соединений на один адрес; gateway ходит только в server, поэтому обычно они равны
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+
+    // Сколько запрос ждёт свободное соединение из пула, прежде чем gateway ответит 503
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Ожидание ответа server
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    // Сколько простаивающее соединение держится открытым, если server не прислал Keep-Alive.
+    // Должно быть меньше keep-alive-timeout Tomcat у server, иначе gateway возьмёт уже закрытое соединение.
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // Соединения, простаивающие дольше, закрываются фоновым потоком пула
+    private Duration idleEvictAfter = Duration.ofSeconds(30);
+
+    // Соединение, простоявшее дольше, перед выдачей проверяется на обрыв
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    // Максимальное время жизни соединения, после него оно не переиспользуется
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
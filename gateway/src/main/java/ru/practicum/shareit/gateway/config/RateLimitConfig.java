@@ -0,0 +1,10 @@
+package ru.practicum.shareit.gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.gateway.ratelimit.RateLimitProperties;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.gateway.config;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.gateway.resilience.ResilienceProperties;
+
+import java.time.Duration;
+
+// Реестры circuit breaker'ов и bulkhead'ов для вызовов server (см. ResilientClient):
+// экземпляр на каждый Feign-клиент создаётся при первом вызове с общими настройками
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry serverCircuitBreakers(ResilienceProperties properties) {
+        ResilienceProperties.CircuitBreakerSettings settings = properties.getCircuitBreaker();
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .build());
+    }
+
+    // Bulkhead не ставит вызов в очередь: при занятых местах вызов сразу отклоняется
+    @Bean
+    public BulkheadRegistry serverBulkheads(ResilienceProperties properties) {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    // Состояние breaker'а и счётчики вызовов: resilience4j.circuitbreaker.state, .calls, .not.permitted.calls
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry serverCircuitBreakers) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(serverCircuitBreakers);
+    }
+
+    // resilience4j.bulkhead.available.concurrent.calls, .max.allowed.concurrent.calls
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry serverBulkheads) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(serverBulkheads);
+    }
+}
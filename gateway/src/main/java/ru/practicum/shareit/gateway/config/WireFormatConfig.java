@@ -0,0 +1,39 @@
+package ru.practicum.shareit.gateway.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Smile нужен только Feign-клиентам для обмена с server (см. WireFormatProperties, FeignConfig)
+@Configuration
+@EnableConfigurationProperties(WireFormatProperties.class)
+public class WireFormatConfig {
+
+    // Встаёт на место конвертера Smile по умолчанию, но с настройками ObjectMapper приложения:
+    // даты и прочие поля кодируются так же, как в JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false)
+                .factory(new SmileFactory())
+                .build());
+    }
+
+    // Controller'ы gateway отвечают только в JSON, как и раньше: Smile убирается из конвертеров MVC,
+    // у Feign остаётся свой набор конвертеров
+    @Bean
+    public WebMvcConfigurer jsonOnlyPublicApi() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.gateway.config;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+
+// Формат тел запросов и ответов между gateway и server (shareit-server.wire.*).
+// Публичный API gateway от него не зависит и всегда отвечает в JSON.
+@Data
+@ConfigurationProperties(prefix = "shareit-server.wire")
+public class WireFormatProperties {
+
+    private Format format = Format.SMILE;
+
+    // Запрашивать ли у server сжатые ответы (Accept-Encoding: gzip, deflate); распаковывает их HttpClient
+    private boolean compression = true;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+
+        JSON(MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE),
+        // Если server не умеет Smile, он ответит в JSON
+        SMILE("application/x-jackson-smile", "application/x-jackson-smile, application/json;q=0.9");
+
+        private final String contentType;
+        private final String accept;
+    }
+}
@@ -1,12 +1,16 @@
 package ru.practicum.shareit.gateway.exception;
 
 import feign.FeignException;
+import feign.RetryableException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.List;
+
 
 @RestControllerAdvice
 public class ErrorHandler {
@@ -15,6 +19,15 @@ public class ErrorHandler {
     public ResponseEntity<ErrorResponse> handleFeignException(FeignException ex) {
         HttpStatus status = HttpStatus.valueOf(ex.status());
 
+        // server подтвердил, что версия клиента из If-None-Match актуальна: 304 без тела с тем же ETag
+        if (status == HttpStatus.NOT_MODIFIED) {
+            ResponseEntity.BodyBuilder notModified = ResponseEntity.status(status);
+            ex.responseHeaders().getOrDefault(HttpHeaders.ETAG, List.of()).stream()
+                    .findFirst()
+                    .ifPresent(notModified::eTag);
+            return notModified.build();
+        }
+
         ErrorResponse errorResponse = new ErrorResponse(
                 "FeignException",
                 ex.getMessage(),
@@ -25,6 +38,21 @@ public class ErrorHandler {
 
     }
 
+    // server недоступен, не ответил вовремя или все соединения пула заняты дольше connection-request-timeout
+    @ExceptionHandler(RetryableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse serviceUnavailableHandler(RetryableException e) {
+        return new ErrorResponse("ServiceUnavailable", e.getMessage(), e.getStackTrace());
+    }
+
+    // Вызов отклонён до обращения к server: открыт circuit breaker, занят bulkhead или исчерпан лимит параллельности
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> serviceOverloadedHandler(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(new ErrorResponse("ServiceUnavailable", e.getMessage(), e.getStackTrace()));
+    }
+
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse exceptionHandler(ValidationException e) {
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.gateway.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// gateway не стал вызывать server: он сбоит или перегружен. retryAfter - когда клиенту имеет смысл повторить
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -1,11 +1,20 @@
 package ru.practicum.shareit.gateway.item;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.exception.ValidationException;
 import ru.practicum.shareit.gateway.item.client.ItemClient;
+import ru.practicum.shareit.gateway.item.client.ItemImportClient;
 import ru.practicum.shareit.gateway.item.dto.*;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Set;
 
@@ -15,7 +24,14 @@ import java.util.Set;
 @AllArgsConstructor
 public class ItemGatewayController {
 
+    private static final String DEFAULT_COMMENTS_SIZE = "20";
+    private static final int MAX_COMMENTS_SIZE = 100;
+
+    // Календарь строится не больше чем на год вперёд за один запрос
+    private static final Duration MAX_AVAILABILITY_RANGE = Duration.ofDays(366);
+
     private final ItemClient itemClient;
+    private final ItemImportClient itemImportClient;
 
     @PostMapping
     public ItemResponseDto createItem(
@@ -28,6 +44,17 @@ public class ItemGatewayController {
 
     }
 
+    // Потоковый импорт вещей (NDJSON, строка - ItemRequestDto). Строки проверяет server:
+    // в ответ строка результата на каждую, по мере сохранения порций
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(
+            @RequestHeader("X-Sharer-User-Id")
+            Long userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        itemImportClient.importItems(userId, request.getInputStream(), response);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemResponseDto updateItem(
             @PathVariable long itemId,
@@ -44,8 +71,17 @@ public class ItemGatewayController {
             @PathVariable
             Long itemId,
             @RequestHeader("X-Sharer-User-Id")
-            Long userId) {
-        return itemClient.getItem(itemId, userId);
+            Long userId,
+            @RequestParam(value = "commentsFrom", defaultValue = "0")
+            Integer commentsFrom,
+            @RequestParam(value = "commentsSize", defaultValue = DEFAULT_COMMENTS_SIZE)
+            Integer commentsSize) {
+
+        if (commentsFrom < 0 || commentsSize < 1 || commentsSize > MAX_COMMENTS_SIZE) {
+            throw new ValidationException("Comments page must have from >= 0 and size between 1 and " + MAX_COMMENTS_SIZE);
+        }
+
+        return itemClient.getItem(itemId, userId, commentsFrom, commentsSize);
     }
 
     @GetMapping
@@ -68,6 +104,50 @@ public class ItemGatewayController {
         return itemClient.searchItems(userId, searchString);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityResponseDto getItemAvailability(
+            @PathVariable
+            Long itemId,
+            @RequestHeader("X-Sharer-User-Id")
+            Long userId,
+            @RequestParam("from")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam("to")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to) {
+
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Parameter from must be before to");
+        }
+
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new ValidationException("Availability range must not exceed " + MAX_AVAILABILITY_RANGE.toDays() + " days");
+        }
+
+        return itemClient.getItemAvailability(itemId, userId, from, to);
+    }
+
+    // Ближайшее свободное окно длиной duration (ISO-8601, например PT2H) не раньше from
+    @GetMapping("/{itemId}/availability/next")
+    public IntervalDto getNextFreeSlot(
+            @PathVariable
+            Long itemId,
+            @RequestHeader("X-Sharer-User-Id")
+            Long userId,
+            @RequestParam("from")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam("duration")
+            Duration duration) {
+
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new ValidationException("Duration must be positive and not exceed " + MAX_AVAILABILITY_RANGE.toDays() + " days");
+        }
+
+        return itemClient.getNextFreeSlot(itemId, userId, from, duration);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentResponseDto addComment(
             @Valid
@@ -1,14 +1,19 @@
 package ru.practicum.shareit.gateway.item.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.item.dto.CommentRequestDto;
 import ru.practicum.shareit.gateway.item.dto.CommentResponseDto;
+import ru.practicum.shareit.gateway.item.dto.IntervalDto;
+import ru.practicum.shareit.gateway.item.dto.ItemAvailabilityResponseDto;
 import ru.practicum.shareit.gateway.item.dto.ItemRequestDto;
 import ru.practicum.shareit.gateway.item.dto.ItemResponseDto;
 import ru.practicum.shareit.gateway.item.dto.ItemUpdateRequestDto;
 import ru.practicum.shareit.gateway.item.dto.ItemWithCommentsResponseDto;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 @FeignClient(
@@ -31,7 +36,9 @@ public interface ItemClient {
     @GetMapping("/{itemId}")
     ItemWithCommentsResponseDto getItem(
             @PathVariable("itemId") Long itemId,
-            @RequestHeader("X-Sharer-User-Id") Long userId);
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam("commentsFrom") Integer commentsFrom,
+            @RequestParam("commentsSize") Integer commentsSize);
 
     @GetMapping
     Collection<ItemWithCommentsResponseDto> getItemsByUser(
@@ -42,6 +49,20 @@ public interface ItemClient {
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam("text") String text);
 
+    @GetMapping("/{itemId}/availability")
+    ItemAvailabilityResponseDto getItemAvailability(
+            @PathVariable("itemId") Long itemId,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to);
+
+    @GetMapping("/{itemId}/availability/next")
+    IntervalDto getNextFreeSlot(
+            @PathVariable("itemId") Long itemId,
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("duration") Duration duration);
+
     @PostMapping("/{itemId}/comment")
     CommentResponseDto addComment(
             @RequestBody CommentRequestDto commentDto,
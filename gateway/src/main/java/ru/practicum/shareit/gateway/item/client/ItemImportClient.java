@@ -0,0 +1,65 @@
+package ru.practicum.shareit.gateway.item.client;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Проксирование POST /items/import в server без буферизации. Feign держит тело запроса и ответа целиком
+// в памяти, поэтому загрузка идёт напрямую через HTTP-клиент Feign (тот же пул соединений к server):
+// тело клиента уходит в server chunked по мере чтения, строки результатов server сразу пересылаются клиенту
+@Component
+public class ItemImportClient {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CloseableHttpClient httpClient;
+    private final String importUrl;
+
+    public ItemImportClient(CloseableHttpClient feignHttpClient, @Value("${shareit-server.url}") String serverUrl) {
+        this.httpClient = feignHttpClient;
+        this.importUrl = serverUrl + "/items/import";
+    }
+
+    public void importItems(Long userId, InputStream upload, HttpServletResponse response) throws IOException {
+        HttpPost post = new HttpPost(importUrl);
+        post.setHeader("X-Sharer-User-Id", userId);
+        post.setEntity(new InputStreamEntity(upload, -1,
+                ContentType.create(MediaType.APPLICATION_NDJSON_VALUE, StandardCharsets.UTF_8)));
+
+        // Статус и тело server (и результаты, и ошибка) передаются клиенту как есть
+        httpClient.execute(post, serverResponse -> {
+            response.setStatus(serverResponse.getCode());
+            HttpEntity entity = serverResponse.getEntity();
+            if (entity == null) {
+                return null;
+            }
+            if (entity.getContentType() != null) {
+                response.setContentType(entity.getContentType());
+            }
+            try (InputStream body = entity.getContent()) {
+                relay(body, response.getOutputStream());
+            }
+            return null;
+        });
+    }
+
+    private static void relay(InputStream body, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.gateway.pagination;
+
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.gateway.exception.ValidationException;
+
+import java.util.List;
+
+// Общее для списков с keyset-пагинацией: размер страницы и курсор следующей страницы, который server
+// передаёт заголовком. Без параметра size список отдаётся страницами по DEFAULT_PAGE_SIZE
+public final class KeysetPages {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String DEFAULT_PAGE_SIZE = "20";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPages() {
+    }
+
+    public static void checkPageSize(Integer size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    // Страница server пробрасывается клиенту вместе с курсором следующей
+    public static <T> ResponseEntity<List<T>> relay(ResponseEntity<List<T>> response) {
+        ResponseEntity.BodyBuilder page = ResponseEntity.ok();
+
+        String nextCursor = response.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+        if (nextCursor != null) {
+            page.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return page.body(response.getBody());
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.gateway.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.gateway.cache.ResponseCacheFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Ограничивает частоту запросов каждого пользователя (X-Sharer-User-Id, без него - адреса клиента)
+// отдельно для чтения и записи. Стоит первым из фильтров gateway: лишний запрос получает 429 с Retry-After,
+// не доходя ни до кэша, ни до server. Отклонённые запросы - метрика gateway.rate-limit.rejected{class}.
+@Slf4j
+@Component
+@Order(RateLimitFilter.ORDER)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = ResponseCacheFilter.ORDER - 1;
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxClients())
+                .build();
+        this.rejectedReads = rejectedCounter(meterRegistry, "reads");
+        this.rejectedWrites = rejectedCounter(meterRegistry, "writes");
+    }
+
+    // Уведомления server о сбросе кэша и actuator не ограничиваются
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !properties.isEnabled() || path.startsWith("/cache/") || path.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        RateLimitProperties.Limit limit = read ? properties.getReads() : properties.getWrites();
+        String user = request.getHeader(USER_HEADER);
+        String client = user != null ? "user:" + user : "address:" + request.getRemoteAddr();
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get((read ? "reads:" : "writes:") + client,
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        (read ? rejectedReads : rejectedWrites).increment();
+        log.debug("Rate limit exceeded by {} on {} {}", client, request.getMethod(), request.getRequestURI());
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "error", "TooManyRequests",
+                "description", "Rate limit exceeded, retry after " + retryAfterSeconds + " s"));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String routeClass) {
+        return Counter.builder("gateway.rate-limit.rejected")
+                .description("Requests rejected by per-user rate limit")
+                .tag("class", routeClass)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.gateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Ограничение частоты запросов одного пользователя (shareit-gateway.rate-limit.*)
+@Data
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Чтение (GET, HEAD) и запись считаются по отдельным вёдрам
+    private final Limit reads = new Limit(100, 50);
+    private final Limit writes = new Limit(20, 10);
+
+    // Вёдра пользователей, не приходивших дольше idle-timeout, удаляются; больше max-clients вёдер не хранится
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private long maxClients = 100_000;
+
+    @Data
+    public static class Limit {
+
+        // Сколько запросов можно сделать подряд и с какой скоростью это число восстанавливается
+        private int capacity;
+        private double refillPerSecond;
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ведро токенов без блокировок, в форме GCRA: вместо числа токенов хранится один момент времени -
+// когда ведро снова станет полным. Каждый запрос сдвигает его на интервал пополнения одного токена;
+// если момент ушёл вперёд больше чем на ёмкость ведра, токенов нет. Состояние - один AtomicLong,
+// обновляется CAS, поэтому проверка не блокирует и не создаёт объектов.
+public class TokenBucket {
+
+    // Время пополнения одного токена и всего ведра
+    private final long tokenNanos;
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double tokensPerSecond, long nowNanos) {
+        this.tokenNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.capacityNanos = tokenNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    // 0, если токен взят, иначе сколько наносекунд ждать следующего токена
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + tokenNanos;
+            if (next - nowNanos > capacityNanos) {
+                return next - nowNanos - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package ru.practicum.shareit.gateway.request;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.pagination.KeysetPages;
 import ru.practicum.shareit.gateway.request.client.RequestClient;
 import ru.practicum.shareit.gateway.request.dto.RequestRequestDto;
 import ru.practicum.shareit.gateway.request.dto.RequestResponseDto;
 import ru.practicum.shareit.gateway.request.dto.RequestWithItemsResponseDto;
 
 import java.util.Collection;
+import java.util.List;
 
 
 @RestController
@@ -36,11 +39,16 @@ public class RequestGatewayController {
     }
 
     @GetMapping("/all")
-    public Collection<RequestWithItemsResponseDto> getOtherUsersRequests(
+    public ResponseEntity<List<RequestWithItemsResponseDto>> getOtherUsersRequests(
             @RequestHeader("X-Sharer-User-Id")
-            Long userId) {
-
-        return client.getOtherUsersRequests(userId);
+            Long userId,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = KeysetPages.DEFAULT_PAGE_SIZE)
+            Integer size) {
+
+        KeysetPages.checkPageSize(size);
+        return KeysetPages.relay(client.getOtherUsersRequests(userId, cursor, size));
 
     }
 
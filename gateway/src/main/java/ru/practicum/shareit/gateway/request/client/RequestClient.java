@@ -1,12 +1,14 @@
 package ru.practicum.shareit.gateway.request.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.request.dto.RequestRequestDto;
 import ru.practicum.shareit.gateway.request.dto.RequestResponseDto;
 import ru.practicum.shareit.gateway.request.dto.RequestWithItemsResponseDto;
 
 import java.util.Collection;
+import java.util.List;
 
 @FeignClient(
         url = "${shareit-server.url}",
@@ -28,9 +30,13 @@ public interface RequestClient {
             Long userId);
 
     @GetMapping("/all")
-    Collection<RequestWithItemsResponseDto> getOtherUsersRequests(
+    ResponseEntity<List<RequestWithItemsResponseDto>> getOtherUsersRequests(
             @RequestHeader("X-Sharer-User-Id")
-            Long userId);
+            Long userId,
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+            @RequestParam("size")
+            Integer size);
 
     @GetMapping("/{requestId}")
     RequestWithItemsResponseDto getRequestById(
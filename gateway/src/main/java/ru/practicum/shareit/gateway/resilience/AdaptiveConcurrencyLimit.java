@@ -0,0 +1,63 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+// Адаптивный лимит одновременных вызовов (AIMD, как управление окном в TCP). Пока server отвечает быстро
+// и без ошибок, лимит растёт на единицу примерно за каждые limit вызовов; ошибка или медленный ответ
+// уменьшают его в backoffRatio раз. Вызов сверх лимита не ждёт, а сразу отклоняется.
+// Без блокировок: число вызовов - AtomicInteger, лимит - double в AtomicLong, обновляется CAS.
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                    Duration slowCallDurationThreshold) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.slowCallNanos = slowCallDurationThreshold.toNanos();
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.clamp(initialLimit, minLimit, maxLimit)));
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(long durationNanos, boolean failed) {
+        int concurrent = inFlight.getAndDecrement();
+
+        if (failed || durationNanos > slowCallNanos) {
+            update(limit -> Math.max(minLimit, limit * backoffRatio));
+        } else if (concurrent * 2 >= limit()) {
+            // лимит растёт, только если он хотя бы наполовину используется, иначе после затишья
+            // он оказался бы сколь угодно большим и не сдержал бы всплеск
+            update(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    public double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator change) {
+        limitBits.updateAndGet(bits -> Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+}
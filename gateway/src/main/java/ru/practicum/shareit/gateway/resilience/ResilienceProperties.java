@@ -0,0 +1,57 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Защита вызовов server (shareit-server.resilience.*). Circuit breaker, bulkhead и лимит параллельности
+// заводятся на каждый Feign-клиент (item-client, booking-client, user-client, request-client) отдельно
+@Data
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    private final CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+
+    private final BulkheadSettings bulkhead = new BulkheadSettings();
+
+    private final ConcurrencyLimitSettings concurrencyLimit = new ConcurrencyLimitSettings();
+
+    @Data
+    public static class CircuitBreakerSettings {
+
+        // Доля ошибок (IOException, таймаут, ответ 5xx) и медленных вызовов в окне, при которой breaker открывается
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+
+        // Окно - последние sliding-window-size вызовов; до minimum-number-of-calls вызовов breaker не открывается
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+
+        // Открытый breaker сразу отвечает 503, через wait-duration-in-open-state пропускает пробные вызовы
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 5;
+    }
+
+    @Data
+    public static class BulkheadSettings {
+
+        // Жёсткий предел одновременных вызовов одного клиента: медленные вызовы вещей не займут весь пул
+        // соединений (shareit-server.pool.max-total), и остальные клиенты продолжат работать
+        private int maxConcurrentCalls = 100;
+    }
+
+    @Data
+    public static class ConcurrencyLimitSettings {
+
+        // AIMD: быстрый успешный вызов поднимает лимит на 1/limit, ошибка или медленный вызов умножает его на backoff-ratio
+        private int initialLimit = 50;
+        private int minLimit = 4;
+        private int maxLimit = 100;
+        private double backoffRatio = 0.9;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,235 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.gateway.exception.ServiceUnavailableException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Feign Client, который пропускает вызов в server через circuit breaker, bulkhead и адаптивный лимит
+// параллельности своего Feign-клиента. Если server сбоит или не успевает, запросы gateway сразу получают 503
+// с Retry-After, а не копятся в ожидании соединения или ответа.
+// Ошибкой для breaker и лимита считаются IOException (в т.ч. таймаут при чтении тела) и ответы 5xx;
+// 4xx - нормальный ответ. Вызов занимает bulkhead и лимит до закрытия тела ответа (Feign закрывает его
+// после декодирования), и в длительность вызова входит чтение тела.
+// Метрики: resilience4j.circuitbreaker.*, resilience4j.bulkhead.* (ResilienceConfig),
+// gateway.server.calls.rejected{client, reason} и gateway.server.concurrency.limit{client}.
+@Slf4j
+public class ResilientClient implements Client {
+
+    private static final Duration RETRY_AFTER_OVERLOAD = Duration.ofSeconds(1);
+
+    private final Client delegate;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final ResilienceProperties.ConcurrencyLimitSettings limitSettings;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public ResilientClient(Client delegate, CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads,
+                           ResilienceProperties.ConcurrencyLimitSettings limitSettings, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+        this.limitSettings = limitSettings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Guard guard = guards.computeIfAbsent(clientName(request), this::guard);
+
+        if (!guard.circuitBreaker.tryAcquirePermission()) {
+            throw guard.reject("circuit_open", guard.circuitBreaker.getCircuitBreakerConfig()
+                    .getWaitIntervalFunctionInOpenState().apply(1));
+        }
+        if (!guard.bulkhead.tryAcquirePermission()) {
+            guard.circuitBreaker.releasePermission();
+            throw guard.reject("bulkhead_full", RETRY_AFTER_OVERLOAD.toMillis());
+        }
+        if (!guard.limit.tryAcquire()) {
+            guard.circuitBreaker.releasePermission();
+            guard.bulkhead.onComplete();
+            throw guard.reject("concurrency_limit", RETRY_AFTER_OVERLOAD.toMillis());
+        }
+
+        long start = System.nanoTime();
+        Call call = new Call(guard, start);
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException e) {
+            call.complete(0, e);
+            throw e;
+        }
+
+        if (response.body() == null) {
+            call.complete(response.status(), null);
+            return response;
+        }
+        // Тело ещё не прочитано: соединение занято, пока decoder Feign его не дочитает и не закроет
+        return response.toBuilder().body(new GuardedBody(response.body(), call, response.status())).build();
+    }
+
+    // Имя из @FeignClient(name = ...): у каждого интерфейса свои breaker, bulkhead и лимит
+    private static String clientName(Request request) {
+        return request.requestTemplate().feignTarget().name();
+    }
+
+    private Guard guard(String client) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(limitSettings.getInitialLimit(),
+                limitSettings.getMinLimit(), limitSettings.getMaxLimit(), limitSettings.getBackoffRatio(),
+                limitSettings.getSlowCallDurationThreshold());
+        Gauge.builder("gateway.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Adaptive limit of concurrent calls to server")
+                .tag("client", client)
+                .register(meterRegistry);
+
+        return new Guard(client, circuitBreakers.circuitBreaker(client), bulkheads.bulkhead(client), limit);
+    }
+
+    private class Guard {
+        private final String client;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final AdaptiveConcurrencyLimit limit;
+
+        Guard(String client, CircuitBreaker circuitBreaker, Bulkhead bulkhead, AdaptiveConcurrencyLimit limit) {
+            this.client = client;
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.limit = limit;
+        }
+
+        ServiceUnavailableException reject(String reason, long retryAfterMillis) {
+            Counter.builder("gateway.server.calls.rejected")
+                    .description("Calls to server rejected by gateway before sending")
+                    .tag("client", client)
+                    .tag("reason", reason)
+                    .register(meterRegistry)
+                    .increment();
+            log.debug("Call of {} rejected: {}", client, reason);
+            return new ServiceUnavailableException("Server is unavailable for " + client + ": " + reason,
+                    Duration.ofMillis(retryAfterMillis));
+        }
+    }
+
+    // Один вызов server: результат для breaker, permit bulkhead и слот лимита освобождаются ровно один раз -
+    // при закрытии тела ответа, а если тела нет или вызов упал - сразу
+    private static class Call {
+        private final Guard guard;
+        private final long start;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        Call(Guard guard, long start) {
+            this.guard = guard;
+            this.start = start;
+        }
+
+        void complete(int status, Throwable error) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            long duration = System.nanoTime() - start;
+            boolean failed = error != null || status >= 500;
+            if (error != null) {
+                guard.circuitBreaker.onError(duration, TimeUnit.NANOSECONDS, error);
+            } else if (failed) {
+                guard.circuitBreaker.onError(duration, TimeUnit.NANOSECONDS,
+                        new IOException("Server responded with status " + status));
+            } else {
+                guard.circuitBreaker.onSuccess(duration, TimeUnit.NANOSECONDS);
+            }
+            guard.bulkhead.onComplete();
+            guard.limit.release(duration, failed);
+        }
+    }
+
+    // Тело ответа, чтение которого входит в вызов: ошибка чтения - ошибка вызова, закрытие завершает вызов
+    private static class GuardedBody implements Response.Body {
+        private final Response.Body body;
+        private final Call call;
+        private final int status;
+        private volatile IOException readError;
+
+        GuardedBody(Response.Body body, Call call, int status) {
+            this.body = body;
+            this.call = call;
+            this.status = status;
+        }
+
+        @Override
+        public Integer length() {
+            return body.length();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return body.isRepeatable();
+        }
+
+        @Override
+        public InputStream asInputStream() throws IOException {
+            return new FilterInputStream(guarded(body::asInputStream)) {
+                @Override
+                public int read() throws IOException {
+                    return guarded(super::read);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return guarded(() -> super.read(b, off, len));
+                }
+            };
+        }
+
+        @Override
+        public Reader asReader(Charset charset) throws IOException {
+            return new InputStreamReader(asInputStream(), charset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                body.close();
+            } finally {
+                call.complete(status, readError);
+            }
+        }
+
+        private <T> T guarded(IOSupplier<T> read) throws IOException {
+            try {
+                return read.get();
+            } catch (IOException e) {
+                readError = e;
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+}
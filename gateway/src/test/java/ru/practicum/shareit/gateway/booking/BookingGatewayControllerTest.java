@@ -7,10 +7,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.gateway.booking.client.BookingClient;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionOutcome;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingDecisionsDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.gateway.booking.dto.ShotBookingStatusDto;
 import ru.practicum.shareit.gateway.exception.ConflictException;
@@ -133,8 +138,8 @@ class BookingGatewayControllerTest {
 
     @Test
     void getAllBookingAtState_ReturnsList() throws Exception {
-        when(bookingClient.getAllBookingAtState(eq(2L), eq("ALL")))
-                .thenReturn(List.of(bookingResponseDto));
+        when(bookingClient.getAllBookingAtState(eq(2L), eq("ALL"), isNull(), eq(20)))
+                .thenReturn(ResponseEntity.ok(List.of(bookingResponseDto)));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 2L)
@@ -145,8 +150,8 @@ class BookingGatewayControllerTest {
 
     @Test
     void getAllOwnerBookingAtState_ReturnsList() throws Exception {
-        when(bookingClient.getAllOwnerBookingAtState(eq(1L), eq("ALL")))
-                .thenReturn(List.of(bookingResponseDto));
+        when(bookingClient.getAllOwnerBookingAtState(eq(1L), eq("ALL"), isNull(), eq(20)))
+                .thenReturn(ResponseEntity.ok(List.of(bookingResponseDto)));
 
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -157,8 +162,8 @@ class BookingGatewayControllerTest {
 
     @Test
     void getAllBookingAtState_Waiting_ReturnsWaitingBookings() throws Exception {
-        when(bookingClient.getAllBookingAtState(eq(1L), eq("WAITING")))
-                .thenReturn(List.of(createBookingResponseDto(ShotBookingStatusDto.WAITING)));
+        when(bookingClient.getAllBookingAtState(eq(1L), eq("WAITING"), isNull(), eq(20)))
+                .thenReturn(ResponseEntity.ok(List.of(createBookingResponseDto(ShotBookingStatusDto.WAITING))));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -170,8 +175,8 @@ class BookingGatewayControllerTest {
 
     @Test
     void getAllBookingAtState_Approved_ReturnsApprovedBookings() throws Exception {
-        when(bookingClient.getAllBookingAtState(eq(1L), eq("APPROVED")))
-                .thenReturn(List.of(createBookingResponseDto(ShotBookingStatusDto.APPROVED)));
+        when(bookingClient.getAllBookingAtState(eq(1L), eq("APPROVED"), isNull(), eq(20)))
+                .thenReturn(ResponseEntity.ok(List.of(createBookingResponseDto(ShotBookingStatusDto.APPROVED))));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -183,8 +188,8 @@ class BookingGatewayControllerTest {
 
     @Test
     void getAllBookingAtState_Rejected_ReturnsRejectedBookings() throws Exception {
-        when(bookingClient.getAllBookingAtState(eq(1L), eq("REJECTED")))
-                .thenReturn(List.of(createBookingResponseDto(ShotBookingStatusDto.REJECTED)));
+        when(bookingClient.getAllBookingAtState(eq(1L), eq("REJECTED"), isNull(), eq(20)))
+                .thenReturn(ResponseEntity.ok(List.of(createBookingResponseDto(ShotBookingStatusDto.REJECTED))));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -210,6 +215,22 @@ class BookingGatewayControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createBooking_EndBeforeStart_ReturnsBadRequest() throws Exception {
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(1L);
+        dto.setStart(LocalDateTime.now().plusDays(2));
+        dto.setEnd(LocalDateTime.now().plusDays(1));
+
+        mvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingClient);
+    }
+
     @Test
     void updateBooking_Forbidden_ReturnsForbidden() throws Exception {
         when(bookingClient.updateBooking(eq(2L), eq(100L), eq(true))).thenThrow(new ForbiddenException("You do not have permission to approve this booking"));
@@ -283,5 +304,37 @@ class BookingGatewayControllerTest {
         mvc.perform(get("/bookings/{bookingId}", 100L))
                 .andExpect(status().isBadRequest());
     }
-}
 
+    @Test
+    void decideBookings_RelaysBatchToServer() throws Exception {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(100L);
+        decision.setApproved(false);
+        BookingDecisionsDto dto = new BookingDecisionsDto();
+        dto.setDecisions(List.of(decision));
+
+        BookingDecisionResultDto result = new BookingDecisionResultDto();
+        result.setBookingId(100L);
+        result.setOutcome(BookingDecisionOutcome.REJECTED);
+        when(bookingClient.decideBookings(eq(1L), any(BookingDecisionsDto.class))).thenReturn(List.of(result));
+
+        mvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId").value(100L))
+                .andExpect(jsonPath("$[0].outcome").value("REJECTED"));
+    }
+
+    @Test
+    void decideBookings_DecisionWithoutApproved_BadRequest() throws Exception {
+        mvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"decisions\":[{\"bookingId\":100}]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).decideBookings(anyLong(), any());
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayResponseCacheTest {
+
+    private static final int MAXIMUM_SIZE = 10;
+
+    private static final CacheKey ITEM_1 = new CacheKey(CacheRegion.ITEMS, 1L, "/items/1?", "100");
+    private static final CacheKey ITEM_2 = new CacheKey(CacheRegion.ITEMS, 2L, "/items/2?", "100");
+    private static final CacheKey SEARCH = new CacheKey(CacheRegion.ITEMS, null, "/items/search?text=[a]", "100");
+    private static final CacheKey REQUESTS = new CacheKey(CacheRegion.REQUESTS, null, "/requests?", "100");
+
+    private final CachedResponse response = new CachedResponse("application/json", null, "\"v1\"", new byte[0]);
+
+    private GatewayResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaximumSize(MAXIMUM_SIZE);
+        cache = new GatewayResponseCache(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void invalidationByIdDropsThatResourceAndListsOnly() {
+        putAll(ITEM_1, ITEM_2, SEARCH, REQUESTS);
+
+        cache.invalidate(CacheRegion.ITEMS, List.of(1L));
+
+        assertNull(cache.get(ITEM_1));
+        assertNull(cache.get(SEARCH));
+        assertSame(response, cache.get(ITEM_2));
+        assertSame(response, cache.get(REQUESTS));
+    }
+
+    @Test
+    void invalidationWithoutIdsDropsWholeRegion() {
+        putAll(ITEM_1, ITEM_2, SEARCH, REQUESTS);
+
+        cache.invalidate(CacheRegion.ITEMS, List.of());
+
+        assertNull(cache.get(ITEM_1));
+        assertNull(cache.get(ITEM_2));
+        assertNull(cache.get(SEARCH));
+        assertSame(response, cache.get(REQUESTS));
+    }
+
+    @Test
+    void responseRequestedBeforeInvalidationIsNotCached() {
+        GatewayResponseCache.Generation generation = cache.generation(ITEM_1);
+
+        cache.invalidate(CacheRegion.ITEMS, List.of(1L));
+        cache.put(ITEM_1, response, generation);
+
+        assertNull(cache.get(ITEM_1));
+    }
+
+    @Test
+    void evictedResourceGenerationInvalidatesWholeRegion() {
+        putAll(ITEM_1);
+        GatewayResponseCache.Generation stale = cache.generation(ITEM_1);
+
+        // поколений объектов не больше maximum-size: лишний id вытесняет одно из них,
+        // и вместе с ним устаревают все объекты группы
+        for (long id = 2; id <= MAXIMUM_SIZE + 2; id++) {
+            cache.invalidate(CacheRegion.ITEMS, List.of(id));
+        }
+
+        assertNotEquals(stale, cache.generation(ITEM_1));
+        assertNull(cache.get(ITEM_1));
+    }
+
+    private void putAll(CacheKey... keys) {
+        for (CacheKey key : keys) {
+            cache.put(key, response, cache.generation(key));
+        }
+    }
+}
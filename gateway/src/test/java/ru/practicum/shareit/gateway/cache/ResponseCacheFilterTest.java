@@ -0,0 +1,191 @@
+package ru.practicum.shareit.gateway.cache;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.gateway.cache.dto.CacheInvalidationDto;
+import ru.practicum.shareit.gateway.exception.ForbiddenException;
+import ru.practicum.shareit.gateway.item.client.ItemClient;
+import ru.practicum.shareit.gateway.item.dto.ItemResponseDto;
+import ru.practicum.shareit.gateway.item.dto.ItemWithCommentsResponseDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "shareit-gateway.response-cache.invalidation-token=secret")
+@AutoConfigureMockMvc
+class ResponseCacheFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private GatewayResponseCache cache;
+
+    @MockitoBean
+    private ItemClient itemClient;
+
+    private ItemWithCommentsResponseDto item;
+
+    @BeforeEach
+    void setUp() {
+        cache.invalidate(CacheRegion.ITEMS, List.of());
+        cache.invalidate(CacheRegion.REQUESTS, List.of());
+
+        item = new ItemWithCommentsResponseDto();
+        item.setId(1L);
+        item.setName("Дрель");
+    }
+
+    @Test
+    void repeatedGetIsServedFromCache() throws Exception {
+        when(itemClient.getItem(1L, 100L, 0, 20)).thenReturn(item);
+
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "MISS"));
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "HIT"))
+                .andExpect(jsonPath("$.name").value("Дрель"));
+
+        verify(itemClient, times(1)).getItem(1L, 100L, 0, 20);
+    }
+
+    @Test
+    void responsesAreCachedPerUser() throws Exception {
+        when(itemClient.getItem(eq(1L), anyLong(), eq(0), eq(20))).thenReturn(item);
+
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 100L));
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 200L))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "MISS"));
+
+        verify(itemClient, times(2)).getItem(eq(1L), anyLong(), eq(0), eq(20));
+    }
+
+    @Test
+    void invalidationOfItemDropsItemAndSearch() throws Exception {
+        when(itemClient.getItem(1L, 100L, 0, 20)).thenReturn(item);
+        when(itemClient.searchItems(100L, "дрель")).thenReturn(List.of(new ItemResponseDto()));
+
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 100L));
+        mvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 100L));
+
+        mvc.perform(post("/cache/invalidations")
+                        .header("X-Cache-Invalidation-Token", "secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"region\":\"ITEMS\",\"ids\":[1]}"))
+                .andExpect(status().isNoContent());
+
+        mvc.perform(get("/items/1").header("X-Sharer-User-Id", 100L))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "MISS"));
+        mvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 100L))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "MISS"));
+    }
+
+    // Нечисловой id не кэшируется: запрос уходит дальше и получает ошибку
+    @Test
+    void malformedIdIsNotCached() throws Exception {
+        mvc.perform(get("/items/abc").header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(ResponseCacheFilter.CACHE_STATUS_HEADER));
+    }
+
+    @Test
+    void invalidationWithoutRegionIsRejected() throws Exception {
+        mvc.perform(post("/cache/invalidations")
+                        .header("X-Cache-Invalidation-Token", "secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidationWithWrongTokenIsForbidden() throws Exception {
+        mvc.perform(post("/cache/invalidations")
+                        .header("X-Cache-Invalidation-Token", "wrong")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"region\":\"ITEMS\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void invalidationWithoutTokenIsForbidden() throws Exception {
+        mvc.perform(post("/cache/invalidations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"region\":\"ITEMS\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void invalidationIsForbiddenWhenTokenIsNotConfigured() {
+        CacheInvalidationController controller = new CacheInvalidationController(cache, new ResponseCacheProperties());
+        CacheInvalidationDto invalidation = new CacheInvalidationDto();
+        invalidation.setRegion(CacheRegion.ITEMS);
+
+        assertThrows(ForbiddenException.class, () -> controller.invalidate(invalidation, ""));
+    }
+
+    @Test
+    void cachedResponseWithMatchingETagIsNotModified() throws Exception {
+        CacheKey key = new CacheKey(CacheRegion.ITEMS, 1L, "/items/1?", "100");
+        cache.put(key, new CachedResponse(MediaType.APPLICATION_JSON_VALUE, null, "\"v1\"",
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8)), cache.generation(key));
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 100L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "HIT"))
+                .andExpect(content().string(""));
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 100L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(jsonPath("$.id").value(1));
+
+        verifyNoInteractions(itemClient);
+    }
+
+    // 304 от server переносится клиенту с ETag и не кэшируется
+    @Test
+    void notModifiedFromServerIsRelayedAndNotCached() throws Exception {
+        Response notModified = Response.builder()
+                .status(304)
+                .reason("Not Modified")
+                .headers(Map.of(HttpHeaders.ETAG, List.of("\"v2\"")))
+                .request(Request.create(Request.HttpMethod.GET, "/items/1", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .build();
+        when(itemClient.getItem(1L, 100L, 0, 20)).thenThrow(FeignException.errorStatus("getItem", notModified));
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/items/1")
+                            .header("X-Sharer-User-Id", 100L)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"v2\""))
+                    .andExpect(header().string(ResponseCacheFilter.CACHE_STATUS_HEADER, "MISS"));
+        }
+
+        verify(itemClient, times(2)).getItem(1L, 100L, 0, 20);
+    }
+}
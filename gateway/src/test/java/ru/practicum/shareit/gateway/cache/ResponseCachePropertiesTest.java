@@ -0,0 +1,34 @@
+package ru.practicum.shareit.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCachePropertiesTest {
+
+    @Test
+    void enabledCacheWithTokenIsActive() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setInvalidationToken("secret");
+
+        assertTrue(properties.isActive());
+    }
+
+    @Test
+    void enabledCacheWithoutTokenIsNotActive() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setInvalidationToken(" ");
+
+        assertFalse(properties.isActive());
+    }
+
+    @Test
+    void disabledCacheIsNotActive() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(false);
+        properties.setInvalidationToken("secret");
+
+        assertFalse(properties.isActive());
+    }
+}
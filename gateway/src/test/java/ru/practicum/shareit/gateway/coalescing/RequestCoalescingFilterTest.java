@@ -0,0 +1,108 @@
+package ru.practicum.shareit.gateway.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.gateway.item.client.ItemClient;
+import ru.practicum.shareit.gateway.item.dto.ItemWithCommentsResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Кэш ответов отключён, чтобы повторные запросы доходили до фильтра схлопывания
+@SpringBootTest(properties = "shareit-gateway.response-cache.enabled=false")
+@AutoConfigureMockMvc
+class RequestCoalescingFilterTest {
+
+    private static final int CLIENTS = 10;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ItemClient itemClient;
+
+    private ItemWithCommentsResponseDto item;
+
+    @BeforeEach
+    void setUp() {
+        item = new ItemWithCommentsResponseDto();
+        item.setId(1L);
+        item.setName("Дрель");
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneServerCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemClient.getItem(1L, 100L, 0, 20)).thenAnswer(invocation -> {
+            release.await();
+            return item;
+        });
+        double coalescedBefore = coalesced();
+
+        List<Future<MvcResult>> responses = sendConcurrently(CLIENTS, i -> 100L);
+        waitUntil(() -> coalesced() - coalescedBefore >= CLIENTS - 1);
+        release.countDown();
+
+        for (Future<MvcResult> response : responses) {
+            assertEquals(200, response.get().getResponse().getStatus());
+            assertTrue(response.get().getResponse().getContentAsString().contains("Дрель"));
+        }
+        verify(itemClient, times(1)).getItem(1L, 100L, 0, 20);
+    }
+
+    @Test
+    void requestsOfDifferentUsersAreNotShared() throws Exception {
+        CountDownLatch bothCalled = new CountDownLatch(2);
+        when(itemClient.getItem(eq(1L), anyLong(), eq(0), eq(20))).thenAnswer(invocation -> {
+            bothCalled.countDown();
+            assertTrue(bothCalled.await(5, TimeUnit.SECONDS));
+            return item;
+        });
+
+        for (Future<MvcResult> response : sendConcurrently(2, i -> 100L + i)) {
+            assertEquals(200, response.get().getResponse().getStatus());
+        }
+        verify(itemClient, times(2)).getItem(eq(1L), anyLong(), eq(0), eq(20));
+    }
+
+    private List<Future<MvcResult>> sendConcurrently(int clients, IntFunction<Long> userOf) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<MvcResult>> responses = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Long userId = userOf.apply(i);
+            responses.add(executor.submit(() -> mvc.perform(get("/items/1")
+                    .header("X-Sharer-User-Id", userId)).andReturn()));
+        }
+        executor.shutdown();
+        return responses;
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("gateway.requests.coalesced").functionCounter().count();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.gateway.coalescing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+
+    @Test
+    void concurrentCallsWithSameKeyShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<SingleFlight.Flight<String>>> results = startCallers("item-1", () -> {
+            executions.incrementAndGet();
+            release.await();
+            return "Дрель";
+        });
+        waitForSharedCallers(CALLERS - 1);
+        release.countDown();
+
+        int leaders = 0;
+        for (Future<SingleFlight.Flight<String>> result : results) {
+            assertEquals("Дрель", result.get().getValue());
+            leaders += result.get().isShared() ? 0 : 1;
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, leaders);
+        assertEquals(CALLERS - 1, flights.sharedCount());
+    }
+
+    @Test
+    void errorOfExecutionIsSharedToo() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<SingleFlight.Flight<String>>> results = startCallers("item-1", () -> {
+            release.await();
+            throw new IllegalStateException("server unavailable");
+        });
+        waitForSharedCallers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<SingleFlight.Flight<String>> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    // Результат не кэшируется: вызов после завершения предыдущего выполняется заново
+    @Test
+    void sequentialCallsAreExecutedSeparately() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+
+        flights.execute("item-1", () -> "v" + executions.incrementAndGet());
+        SingleFlight.Flight<String> second = flights.execute("item-1", () -> "v" + executions.incrementAndGet());
+
+        assertEquals("v2", second.getValue());
+        assertFalse(second.isShared());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Callable<String> call = () -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return "ok";
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<SingleFlight.Flight<String>> first = executor.submit(() -> flights.execute("user-1", call));
+            Future<SingleFlight.Flight<String>> second = executor.submit(() -> flights.execute("user-2", call));
+
+            assertFalse(first.get().isShared());
+            assertFalse(second.get().isShared());
+        }
+    }
+
+    private List<Future<SingleFlight.Flight<String>>> startCallers(String key, Callable<String> call) {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<SingleFlight.Flight<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flights.execute(key, call)));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    // Ожидающие вызовы учитываются в sharedCount до того, как встают на ожидание результата
+    private void waitForSharedCallers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.sharedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.gateway.compression;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
+import ru.practicum.shareit.gateway.item.client.ItemClient;
+import ru.practicum.shareit.gateway.item.dto.ItemWithCommentsResponseDto;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit-gateway.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class ResponseCompressionFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ItemClient itemClient;
+
+    @BeforeEach
+    void setUp() {
+        List<ItemWithCommentsResponseDto> items = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            ItemWithCommentsResponseDto item = new ItemWithCommentsResponseDto();
+            item.setId(id);
+            item.setName("Дрель " + id);
+            item.setDescription("Аккумуляторная дрель");
+            item.setAvailable(true);
+            items.add(item);
+        }
+        when(itemClient.getItemsByUser(1L)).thenReturn(items);
+    }
+
+    @Test
+    void ownerItemsAreCompressedForClientAcceptingGzip() throws Exception {
+        MvcResult result = mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        String body = StreamUtils.copyToString(
+                new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8);
+        assertTrue(body.contains("Дрель 100"));
+
+        double saved = meterRegistry.get("gateway.response.compression.saved")
+                .tag("uri", "/items")
+                .summary().totalAmount();
+        assertTrue(saved >= body.getBytes(StandardCharsets.UTF_8).length - compressed.length);
+    }
+
+    @Test
+    void responseIsPlainWithoutAcceptEncoding() throws Exception {
+        MvcResult result = mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Дрель 100"));
+    }
+
+    @Test
+    void smallResponseIsNotCompressed() throws Exception {
+        mvc.perform(get("/items/999")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(0, meterRegistry.find("gateway.response.compression.saved").tag("uri", "/items/{itemId}").summaries().size());
+    }
+}
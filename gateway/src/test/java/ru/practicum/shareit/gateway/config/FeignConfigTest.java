@@ -0,0 +1,78 @@
+package ru.practicum.shareit.gateway.config;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.Decoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.gateway.user.dto.UserResponseDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeignConfigTest {
+
+    private final FeignConfig config = new FeignConfig();
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void ifNoneMatchOfClientIsForwardedWithGet() {
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+        RequestTemplate get = new RequestTemplate().method(Request.HttpMethod.GET);
+        RequestTemplate patch = new RequestTemplate().method(Request.HttpMethod.PATCH);
+
+        config.ifNoneMatchForwarder().apply(get);
+        config.ifNoneMatchForwarder().apply(patch);
+
+        assertIterableEquals(List.of("\"v1\""), get.headers().get(HttpHeaders.IF_NONE_MATCH));
+        assertFalse(patch.headers().containsKey(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void eTagOfServerResponseIsRelayedToClient() throws Exception {
+        Decoder decoder = config.feignDecoder(
+                () -> new HttpMessageConverters(new MappingJackson2HttpMessageConverter()),
+                new DefaultListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class));
+
+        UserResponseDto user = (UserResponseDto) decoder.decode(Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.GET, "http://server/users/1", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .headers(Map.of(HttpHeaders.ETAG, List.of("\"v2\""),
+                        HttpHeaders.CONTENT_TYPE, List.of(MediaType.APPLICATION_JSON_VALUE)))
+                .body("{\"id\":1,\"name\":\"Alice\"}", StandardCharsets.UTF_8)
+                .build(), UserResponseDto.class);
+
+        assertEquals("Alice", user.getName());
+        assertEquals("\"v2\"", response.getHeader(HttpHeaders.ETAG));
+    }
+}
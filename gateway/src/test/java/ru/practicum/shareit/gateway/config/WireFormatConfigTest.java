@@ -0,0 +1,85 @@
+package ru.practicum.shareit.gateway.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.gateway.user.client.UserClient;
+import ru.practicum.shareit.gateway.user.dto.UserRequestDto;
+import ru.practicum.shareit.gateway.user.dto.UserResponseDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WireFormatConfigTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @Autowired
+    private Encoder feignEncoder;
+
+    @Autowired
+    @Qualifier("wireFormatAccept")
+    private RequestInterceptor wireFormatAccept;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private UserClient userClient;
+
+    @Test
+    void requestBodyToServerIsEncodedInSmile() throws Exception {
+        UserRequestDto user = new UserRequestDto();
+        user.setName("Alice");
+        user.setEmail("alice@example.com");
+        RequestTemplate template = new RequestTemplate();
+
+        feignEncoder.encode(user, UserRequestDto.class, template);
+
+        assertIterableEquals(List.of(SMILE), template.headers().get(HttpHeaders.CONTENT_TYPE));
+        UserRequestDto decoded = smileConverter.getObjectMapper().readValue(template.body(), UserRequestDto.class);
+        assertEquals(user.getEmail(), decoded.getEmail());
+    }
+
+    @Test
+    void responsesFromServerAreRequestedInSmileWithJsonFallback() {
+        RequestTemplate template = new RequestTemplate();
+
+        wireFormatAccept.apply(template);
+
+        assertEquals(WireFormatProperties.Format.SMILE.getAccept(),
+                String.join(", ", template.headers().get(HttpHeaders.ACCEPT)));
+    }
+
+    // Публичный API gateway по-прежнему только JSON
+    @Test
+    void publicApiDoesNotServeSmile() throws Exception {
+        when(userClient.getUserById(anyLong())).thenReturn(new UserResponseDto());
+
+        mvc.perform(get("/users/1").accept(MediaType.valueOf(SMILE)))
+                .andExpect(status().isNotAcceptable());
+        mvc.perform(get("/users/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+}
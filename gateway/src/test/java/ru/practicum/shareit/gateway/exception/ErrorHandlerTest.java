@@ -1,14 +1,22 @@
 package ru.practicum.shareit.gateway.exception;
 
 import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.mock;
@@ -43,6 +51,29 @@ class ErrorHandlerTest {
         assertNotNull(body);
     }
 
+    @Test
+    void serviceUnavailableHandler_serverNotReachable() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://server/items/1", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        RetryableException exception = (RetryableException) FeignException.errorExecuting(request,
+                new ConnectException("Connection refused"));
+
+        ErrorResponse response = errorHandler.serviceUnavailableHandler(exception);
+
+        assertEquals("ServiceUnavailable", response.getError());
+    }
+
+    @Test
+    void serviceOverloadedHandler_returnsServiceUnavailableWithRetryAfter() {
+        ServiceUnavailableException exception =
+                new ServiceUnavailableException("Server is unavailable", Duration.ofSeconds(30));
+
+        ResponseEntity<ErrorResponse> result = errorHandler.serviceOverloadedHandler(exception);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+        assertEquals("30", result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
     @Test
     void exceptionHandler_returnsBadRequest() {
         ValidationException ex = new ValidationException("Validation error");
@@ -10,8 +10,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.gateway.item.client.ItemClient;
+import ru.practicum.shareit.gateway.item.client.ItemImportClient;
 import ru.practicum.shareit.gateway.item.dto.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,7 +22,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+// Кэш ответов проверяется отдельно: здесь одни и те же GET возвращают разные ответы моков
+@SpringBootTest(properties = "shareit-gateway.response-cache.enabled=false")
 @AutoConfigureMockMvc
 class ItemGatewayControllerTest {
 
@@ -30,6 +33,9 @@ class ItemGatewayControllerTest {
     @MockitoBean
     private ItemClient itemClient;
 
+    @MockitoBean
+    private ItemImportClient itemImportClient;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -100,7 +106,7 @@ class ItemGatewayControllerTest {
 
     @Test
     void getItemById_ValidId_ReturnsItemWithComments() throws Exception {
-        when(itemClient.getItem(eq(1L), eq(100L))).thenReturn(itemWithComments);
+        when(itemClient.getItem(eq(1L), eq(100L), eq(0), eq(20))).thenReturn(itemWithComments);
 
         mvc.perform(get("/items/{itemId}", 1L)
                         .header("X-Sharer-User-Id", 100L))
@@ -109,6 +115,16 @@ class ItemGatewayControllerTest {
                 .andExpect(jsonPath("$.comments[0].text").value("Great!"));
     }
 
+    @Test
+    void getItemById_InvalidCommentsSize_ReturnsBadRequest() throws Exception {
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .param("commentsSize", "0")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+
     @Test
     void getItemsByUser_ReturnsListOfItems() throws Exception {
         when(itemClient.getItemsByUser(eq(100L))).thenReturn(List.of(itemWithComments));
@@ -131,6 +147,17 @@ class ItemGatewayControllerTest {
                 .andExpect(jsonPath("$.size()").value(1));
     }
 
+    @Test
+    void searchItems_EmptyText_ReturnsEmptyListWithoutServer() throws Exception {
+        mvc.perform(get("/items/search")
+                        .param("text", "")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(0));
+
+        verifyNoInteractions(itemClient);
+    }
+
     @Test
     void addComment_ValidData_ReturnsComment() throws Exception {
         CommentRequestDto dto = new CommentRequestDto();
@@ -146,4 +173,102 @@ class ItemGatewayControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.text").value("Great!"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailability_ValidRange_ReturnsIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 2, 1, 0, 0);
+
+        ItemAvailabilityResponseDto availability = new ItemAvailabilityResponseDto();
+        availability.setItemId(1L);
+        availability.setFrom(from);
+        availability.setTo(to);
+        availability.setBusy(List.of());
+        availability.setFree(List.of());
+
+        when(itemClient.getItemAvailability(1L, 100L, from, to)).thenReturn(availability);
+
+        mvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-02-01T00:00:00")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1));
+    }
+
+    @Test
+    void getItemAvailability_FromAfterTo_ReturnsBadRequest() throws Exception {
+        mvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-02-01T00:00:00")
+                        .param("to", "2030-01-01T00:00:00")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void getItemAvailability_RangeOverYear_ReturnsBadRequest() throws Exception {
+        mvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2031-02-01T00:00:00")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void getNextFreeSlot_ValidDuration_ReturnsWindow() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        IntervalDto window = new IntervalDto();
+        window.setStart(from);
+        window.setEnd(from.plusHours(2));
+
+        when(itemClient.getNextFreeSlot(1L, 100L, from, Duration.ofHours(2))).thenReturn(window);
+
+        mvc.perform(get("/items/{itemId}/availability/next", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("duration", "PT2H")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.start").exists())
+                .andExpect(jsonPath("$.end").exists());
+    }
+
+    @Test
+    void getNextFreeSlot_InvalidDuration_ReturnsBadRequest() throws Exception {
+        for (String duration : List.of("PT0S", "-PT1H", "P400D")) {
+            mvc.perform(get("/items/{itemId}/availability/next", 1L)
+                            .param("from", "2030-01-01T00:00:00")
+                            .param("duration", duration)
+                            .header("X-Sharer-User-Id", 100L))
+                    .andExpect(status().isBadRequest());
+        }
+
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void importItems_PassesUploadStreamToServer() throws Exception {
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}\n"))
+                .andExpect(status().isOk());
+
+        verify(itemImportClient).importItems(eq(1L), any(), any());
+    }
+
+    @Test
+    void importItems_JsonBody_UnsupportedMediaType() throws Exception {
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(itemImportClient);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.gateway.item.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemImportClientTest {
+
+    private static final String UPLOAD = "{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}\n";
+    private static final String RESULT = "{\"line\":1,\"id\":10}\n";
+
+    private final AtomicReference<String> receivedUser = new AtomicReference<>();
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private ItemImportClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items/import", exchange -> {
+            receivedUser.set(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+            receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+
+            byte[] result = RESULT.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_NDJSON_VALUE);
+            exchange.sendResponseHeaders(200, result.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(result);
+            }
+        });
+        server.start();
+
+        httpClient = HttpClients.createDefault();
+        client = new ItemImportClient(httpClient, "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void uploadIsStreamedToServerAndResultsAreRelayed() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client.importItems(1L, new ByteArrayInputStream(UPLOAD.getBytes(StandardCharsets.UTF_8)), response);
+
+        assertEquals("1", receivedUser.get());
+        assertEquals(UPLOAD, receivedBody.get());
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+        assertEquals(RESULT, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.gateway.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.gateway.exception.ValidationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPagesTest {
+
+    @Test
+    void relayKeepsBodyAndNextCursor() {
+        ResponseEntity<List<String>> page = KeysetPages.relay(ResponseEntity.ok()
+                .header(KeysetPages.NEXT_CURSOR_HEADER, "abc")
+                .header("X-Other", "dropped")
+                .body(List.of("Дрель")));
+
+        assertEquals(List.of("Дрель"), page.getBody());
+        assertEquals("abc", page.getHeaders().getFirst(KeysetPages.NEXT_CURSOR_HEADER));
+        assertNull(page.getHeaders().getFirst("X-Other"));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        ResponseEntity<List<String>> page = KeysetPages.relay(ResponseEntity.ok(List.of()));
+
+        assertFalse(page.getHeaders().containsKey(KeysetPages.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void pageSizeMustBeWithinBounds() {
+        assertDoesNotThrow(() -> KeysetPages.checkPageSize(1));
+        assertDoesNotThrow(() -> KeysetPages.checkPageSize(KeysetPages.MAX_PAGE_SIZE));
+        assertThrows(ValidationException.class, () -> KeysetPages.checkPageSize(0));
+        assertThrows(ValidationException.class, () -> KeysetPages.checkPageSize(KeysetPages.MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import ru.practicum.shareit.gateway.user.client.UserClient;
+import ru.practicum.shareit.gateway.user.dto.UserResponseDto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Маленькие вёдра с медленным пополнением, чтобы за время теста токены не восстанавливались
+@SpringBootTest(properties = {
+        "shareit-gateway.response-cache.enabled=false",
+        "shareit-gateway.rate-limit.reads.capacity=3",
+        "shareit-gateway.rate-limit.reads.refill-per-second=0.01",
+        "shareit-gateway.rate-limit.writes.capacity=1",
+        "shareit-gateway.rate-limit.writes.refill-per-second=0.01"})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private UserClient userClient;
+
+    @Test
+    void requestsOverLimitAreRejectedWithRetryAfter() throws Exception {
+        when(userClient.getUserById(anyLong())).thenReturn(new UserResponseDto());
+        double rejectedBefore = rejected("reads");
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/users/1").header("X-Sharer-User-Id", 10L))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/users/1").header("X-Sharer-User-Id", 10L))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"))
+                .andExpect(jsonPath("$.error").value("TooManyRequests"));
+
+        verify(userClient, times(3)).getUserById(1L);
+        assertEquals(1, rejected("reads") - rejectedBefore);
+    }
+
+    @Test
+    void usersAreLimitedIndependently() throws Exception {
+        when(userClient.getUserById(anyLong())).thenReturn(new UserResponseDto());
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/users/1").header("X-Sharer-User-Id", 20L));
+        }
+        mvc.perform(get("/users/1").header("X-Sharer-User-Id", 20L))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(get("/users/1").header("X-Sharer-User-Id", 21L))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void writesHaveOwnLimit() throws Exception {
+        mvc.perform(delete("/users/2").header("X-Sharer-User-Id", 30L))
+                .andExpect(status().isOk());
+        mvc.perform(delete("/users/2").header("X-Sharer-User-Id", 30L))
+                .andExpect(status().isTooManyRequests());
+
+        when(userClient.getUserById(anyLong())).thenReturn(new UserResponseDto());
+        mvc.perform(get("/users/2").header("X-Sharer-User-Id", 30L))
+                .andExpect(status().isOk());
+        verify(userClient, times(1)).deleteUser(2L);
+    }
+
+    // Без X-Sharer-User-Id ведро выбирается по адресу клиента
+    @Test
+    void anonymousRequestsAreLimitedByAddress() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/users/3").with(from("10.0.0.1")));
+        }
+        mvc.perform(get("/users/3").with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(get("/users/3").with(from("10.0.0.2")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private double rejected(String routeClass) {
+        return meterRegistry.get("gateway.rate-limit.rejected").tag("class", routeClass).counter().count();
+    }
+}
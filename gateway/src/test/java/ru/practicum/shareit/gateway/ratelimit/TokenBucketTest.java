@@ -0,0 +1,56 @@
+package ru.practicum.shareit.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void fullBucketAllowsBurstOfCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 10, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(0));
+        }
+        assertEquals(SECOND / 10, bucket.tryConsume(0));
+    }
+
+    @Test
+    void tokensAreRefilledWithConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2, 10, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertTrue(bucket.tryConsume(SECOND / 20) > 0);
+        assertEquals(0, bucket.tryConsume(SECOND / 10));
+        assertTrue(bucket.tryConsume(SECOND / 10) > 0);
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        long later = 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume(later));
+        }
+        assertEquals(SECOND, bucket.tryConsume(later));
+    }
+
+    // Отказ не расходует токен: следующий запрос ждёт столько же
+    @Test
+    void rejectedRequestDoesNotConsumeToken() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.tryConsume(0);
+
+        assertEquals(SECOND, bucket.tryConsume(0));
+        assertEquals(SECOND, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(SECOND));
+    }
+}
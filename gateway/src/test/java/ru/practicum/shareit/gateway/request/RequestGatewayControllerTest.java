@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.gateway.item.dto.ItemInRequestResponseDto;
@@ -24,7 +25,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+// Кэш ответов проверяется отдельно: здесь одни и те же GET возвращают разные ответы моков
+@SpringBootTest(properties = "shareit-gateway.response-cache.enabled=false")
 @AutoConfigureMockMvc
 class RequestGatewayControllerTest {
 
@@ -95,7 +97,8 @@ class RequestGatewayControllerTest {
 
     @Test
     void getOtherUsersRequests_ValidUser_ReturnsListOfRequests() throws Exception {
-        when(requestClient.getOtherUsersRequests(eq(1L))).thenReturn(List.of(requestWithItems));
+        when(requestClient.getOtherUsersRequests(eq(1L), isNull(), eq(20)))
+                .thenReturn(ResponseEntity.ok(List.of(requestWithItems)));
 
         mvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L))
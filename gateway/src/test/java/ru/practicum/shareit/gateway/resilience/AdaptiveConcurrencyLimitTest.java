@@ -0,0 +1,64 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private final AdaptiveConcurrencyLimit limit =
+            new AdaptiveConcurrencyLimit(4, 2, 8, 0.5, Duration.ofSeconds(1));
+
+    @Test
+    void callsOverLimitAreRejectedWithoutWaiting() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+
+        assertFalse(limit.tryAcquire());
+        assertEquals(4, limit.inFlight());
+    }
+
+    @Test
+    void failureAndSlowCallDecreaseLimitDownToMinimum() {
+        limit.tryAcquire();
+        limit.release(FAST, true);
+        assertEquals(2, limit.limit());
+
+        limit.tryAcquire();
+        limit.release(SLOW, false);
+        assertEquals(2, limit.limit());
+    }
+
+    @Test
+    void fastCallsUnderLoadIncreaseLimitUpToMaximum() {
+        for (int round = 0; round < 100; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(FAST, false);
+            }
+        }
+
+        assertEquals(8, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    // Без нагрузки лимит не растёт: после затишья он должен сдерживать всплеск
+    @Test
+    void idleCallsDoNotIncreaseLimit() {
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+
+        assertEquals(4, limit.limit());
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.gateway.exception.ServiceUnavailableException;
+import ru.practicum.shareit.gateway.item.client.ItemClient;
+import ru.practicum.shareit.gateway.user.client.UserClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofSeconds(30))
+            .build());
+
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(2)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+
+    private final ResilienceProperties.ConcurrencyLimitSettings limitSettings =
+            new ResilienceProperties.ConcurrencyLimitSettings();
+
+    @Test
+    void serverErrorsOpenCircuitOfThatClientOnly() throws IOException {
+        ResilientClient client = resilient((request, options) -> response(request, 500));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(500, client.execute(request(ItemClient.class, "item-client"), options()).status());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.circuitBreaker("item-client").getState());
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> client.execute(request(ItemClient.class, "item-client"), options()));
+        assertEquals(Duration.ofSeconds(30), e.getRetryAfter());
+        assertEquals(1, rejected("item-client", "circuit_open"));
+
+        assertEquals(500, client.execute(request(UserClient.class, "user-client"), options()).status());
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() throws IOException {
+        ResilientClient client = resilient((request, options) -> response(request, 404));
+
+        for (int i = 0; i < 10; i++) {
+            client.execute(request(ItemClient.class, "item-client"), options());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.circuitBreaker("item-client").getState());
+    }
+
+    @Test
+    void timeoutsAreRecordedAndRethrown() {
+        ResilientClient client = resilient((request, options) -> {
+            throw new SocketTimeoutException("Read timed out");
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(SocketTimeoutException.class,
+                    () -> client.execute(request(ItemClient.class, "item-client"), options()));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.circuitBreaker("item-client").getState());
+    }
+
+    @Test
+    void callsOverBulkheadAreRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ResilientClient client = resilient((request, options) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response(request, 200);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2; i++) {
+                executor.submit(() -> client.execute(request(ItemClient.class, "item-client"), options()));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ServiceUnavailableException.class,
+                    () -> client.execute(request(ItemClient.class, "item-client"), options()));
+            assertEquals(1, rejected("item-client", "bulkhead_full"));
+            release.countDown();
+        }
+
+        assertEquals(200, client.execute(request(ItemClient.class, "item-client"), options()).status());
+    }
+
+    // Пока тело не дочитано и не закрыто, соединение с server занято: вызов держит место в bulkhead
+    @Test
+    void callHoldsBulkheadUntilBodyIsClosed() throws IOException {
+        ResilientClient client = resilient((request, options) -> response(request, 200, "{}"));
+
+        Response first = client.execute(request(ItemClient.class, "item-client"), options());
+        Response second = client.execute(request(ItemClient.class, "item-client"), options());
+        assertThrows(ServiceUnavailableException.class,
+                () -> client.execute(request(ItemClient.class, "item-client"), options()));
+
+        assertEquals("{}", new String(first.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        first.close();
+        first.close();
+        assertEquals(200, client.execute(request(ItemClient.class, "item-client"), options()).status());
+        assertThrows(ServiceUnavailableException.class,
+                () -> client.execute(request(ItemClient.class, "item-client"), options()));
+
+        second.close();
+        assertEquals(1, bulkheads.bulkhead("item-client").getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void bodyReadTimeoutsAreRecorded() throws IOException {
+        ResilientClient client = resilient((request, options) -> Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Map.of())
+                .body(new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new SocketTimeoutException("Read timed out");
+                    }
+                }, null)
+                .build());
+
+        for (int i = 0; i < 4; i++) {
+            try (Response response = client.execute(request(ItemClient.class, "item-client"), options())) {
+                assertThrows(SocketTimeoutException.class, () -> response.body().asInputStream().read());
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.circuitBreaker("item-client").getState());
+    }
+
+    private ResilientClient resilient(Client delegate) {
+        return new ResilientClient(delegate, circuitBreakers, bulkheads, limitSettings, meterRegistry);
+    }
+
+    private double rejected(String client, String reason) {
+        return meterRegistry.get("gateway.server.calls.rejected")
+                .tag("client", client)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+
+    private static <T> Request request(Class<T> type, String name) {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(type, name, "http://server"));
+        return Request.create(Request.HttpMethod.GET, "http://server/items/1", Map.of(), null,
+                StandardCharsets.UTF_8, template);
+    }
+
+    private static Request.Options options() {
+        return new Request.Options(Duration.ofSeconds(1), Duration.ofSeconds(1), true);
+    }
+
+    private static Response response(Request request, int status) {
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of())
+                .build();
+    }
+
+    private static Response response(Request request, int status, String body) {
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of())
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -2,18 +2,29 @@ package ru.practicum.shareit.server.booking;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.server.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionsDto;
 import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.server.booking.service.BookingService;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @AllArgsConstructor
 public class BookingController {
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
+    // Списки в этих состояниях зависят только от данных; CURRENT, PAST и FUTURE меняются и со временем,
+    // для них ETag по содержимому ставит ShallowEtagHeaderFilter
+    private static final Set<String> VERSIONED_STATES = Set.of("ALL", "WAITING", "APPROVED", "REJECTED");
+
     private final BookingService service;
 
     @PostMapping
@@ -35,30 +46,66 @@ public class BookingController {
     }
 
 
+    // Пакет решений владельца по бронированиям; итог по каждому id, порядок как в запросе
+    @PatchMapping("/owner/decisions")
+    List<BookingDecisionResultDto> decideBookings(@RequestHeader("X-Sharer-User-Id")
+                                                  Long userId,
+                                                  @RequestBody
+                                                  @Valid
+                                                  BookingDecisionsDto decisions) {
+        return service.decideBookings(userId, decisions.getDecisions());
+    }
+
+
     @GetMapping("{bookingId}")
     BookingResponseDto getBookingById(@RequestHeader("X-Sharer-User-Id")
                                       Long userId,
-                                      @PathVariable Long bookingId) {
+                                      @PathVariable Long bookingId,
+                                      WebRequest request) {
+        if (request.checkNotModified(service.getBookingETag(bookingId, userId))) {
+            return null;
+        }
         return service.getBookingById(bookingId, userId);
     }
 
     @GetMapping
-    Collection<BookingResponseDto> getAllBookingAtState(
+    ResponseEntity<List<BookingResponseDto>> getAllBookingAtState(
             @RequestHeader("X-Sharer-User-Id")
             Long userId,
             @RequestParam(defaultValue = "ALL")
-            String state
+            String state,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE)
+            Integer size,
+            WebRequest request
     ) {
-        return service.getAllBookingAtState(userId, state);
+        if (isNotModified(userId, false, state, request)) {
+            return null;
+        }
+        return service.getAllBookingAtState(userId, state, cursor, size).toResponseEntity();
     }
 
     @GetMapping("/owner")
-    Collection<BookingResponseDto> getAllOwnerBookingAtState(
+    ResponseEntity<List<BookingResponseDto>> getAllOwnerBookingAtState(
             @RequestHeader("X-Sharer-User-Id")
             Long userId,
             @RequestParam(defaultValue = "ALL")
-            String state
+            String state,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE)
+            Integer size,
+            WebRequest request
     ) {
-        return service.getAllOwnerBookingAtState(userId, state);
+        if (isNotModified(userId, true, state, request)) {
+            return null;
+        }
+        return service.getAllOwnerBookingAtState(userId, state, cursor, size).toResponseEntity();
+    }
+
+    private boolean isNotModified(Long userId, boolean owner, String state, WebRequest request) {
+        return VERSIONED_STATES.contains(state.toUpperCase())
+                && request.checkNotModified(service.getBookingsETag(userId, owner));
     }
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.server.booking.dal;
+
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Проекция: всё, что нужно для решения по бронированию без загрузки самого бронирования и вещи
+public interface BookingDecisionTarget {
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+}
@@ -0,0 +1,344 @@
+package ru.practicum.shareit.server.booking.dal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+// Расписание занятости вещей в памяти: для каждой вещи дерево интервалов WAITING и APPROVED бронирований,
+// которые ещё не закончились. Расписание вещи загружается из BookingRepository при первом обращении к ней
+// (только брони с концом после текущего момента), дальше поддерживается при создании и отклонении бронирований;
+// закончившиеся брони выбрасываются при обращении. Проверка "свободен ли интервал" и поиск ближайшего
+// свободного окна - O(log n) от числа броней вещи.
+// В памяти не больше shareit.booking-index.max-items расписаний, расписание без обращений выгружается через
+// shareit.booking-index.expire-after-access и при следующем обращении загружается заново.
+// Индекс локальный для экземпляра server: атомарность гарантируется в пределах одного процесса.
+// Блокировки - ReentrantLock, а не synchronized: под ними идут запросы к БД, и виртуальный поток
+// запроса не должен закреплять за собой поток-носитель на время ожидания JDBC.
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+
+    // Статусы, которые занимают вещь
+    public static final List<BookingStatus> OCCUPYING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    // Блокировка вещи берётся по id из общего набора, а не хранится в расписании: выгруженное расписание
+    // загружается заново только после того, как закончится идущая под той же блокировкой запись
+    private static final int LOCK_STRIPES = 1024;
+
+    private final BookingRepository repository;
+
+    private final Cache<Long, ItemSchedule> schedules;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public BookingIntervalIndex(BookingRepository repository,
+                                @Value("${shareit.booking-index.max-items:10000}") long maxItems,
+                                @Value("${shareit.booking-index.expire-after-access:1h}") Duration expireAfterAccess) {
+        this.repository = repository;
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Проверяет, что интервал свободен, и сохраняет бронирование под блокировкой вещи,
+    // так что два параллельных запроса на пересекающиеся интервалы не пройдут оба.
+    public Booking reserve(Booking booking, UnaryOperator<Booking> save) {
+        Long itemId = booking.getItem().getId();
+        ReentrantLock lock = lockOf(itemId);
+
+        lock.lock();
+        try {
+            ItemSchedule schedule = scheduleOf(itemId);
+            if (schedule.overlaps(booking.getStart(), booking.getEnd())) {
+                throw new ConflictException("Item with id=" + itemId +
+                        " already booked between " + booking.getStart() + " and " + booking.getEnd());
+            }
+
+            Booking saved = save.apply(booking);
+            schedule.add(new Slot(saved.getId(), saved.getStart(), saved.getEnd()));
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Освобождает интервал бронирования (например, после отклонения)
+    public void release(Booking booking) {
+        release(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public void release(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ReentrantLock lock = lockOf(itemId);
+
+        lock.lock();
+        try {
+            // не загруженное расписание при загрузке и так не увидит отклонённую бронь
+            ItemSchedule schedule = schedules.getIfPresent(itemId);
+            if (schedule != null) {
+                schedule.remove(new Slot(bookingId, start, end));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Выгружает все расписания: брони удалены в БД в обход индекса (каскадом при удалении пользователя)
+    public void clear() {
+        schedules.invalidateAll();
+    }
+
+    // Самое раннее начало не раньше from, с которого вещь свободна на протяжении duration;
+    // равно from, если свободен сам интервал [from, from + duration)
+    public LocalDateTime nextFreeSlot(Long itemId, LocalDateTime from, Duration duration) {
+        ReentrantLock lock = lockOf(itemId);
+
+        lock.lock();
+        try {
+            return scheduleOf(itemId).nextFree(from, duration);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockOf(Long itemId) {
+        return locks[Math.floorMod(itemId.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Вызывается под блокировкой вещи; загрузка не внутри вычисления кэша, чтобы не держать его сегмент
+    // во время запроса к БД
+    private ItemSchedule scheduleOf(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        ItemSchedule schedule = schedules.getIfPresent(itemId);
+        if (schedule == null) {
+            schedule = new ItemSchedule();
+            List<Booking> bookings = repository.findAllByItemIdAndStatusInAndEndAfter(itemId, OCCUPYING_STATUSES, now);
+            for (Booking booking : bookings) {
+                schedule.add(new Slot(booking.getId(), booking.getStart(), booking.getEnd()));
+            }
+            schedules.put(itemId, schedule);
+            log.debug("Booking schedule of item id={} loaded: {} intervals", itemId, bookings.size());
+        } else {
+            schedule.removeEndedBy(now);
+        }
+        return schedule;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Slot {
+        private final Long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+
+    // АВЛ-дерево интервалов по (start, id); в узле - наибольший конец интервала в его поддереве.
+    // По нему поиск отбрасывает поддеревья, где все брони закончились раньше нужного момента
+    private static class ItemSchedule {
+
+        private static final Comparator<Slot> ORDER = Comparator.comparing(Slot::getStart)
+                .thenComparing(Slot::getId);
+
+        private Node root;
+
+        void add(Slot slot) {
+            root = insert(root, slot);
+        }
+
+        void remove(Slot slot) {
+            root = delete(root, slot);
+        }
+
+        // Закончившиеся брони больше ничему не мешают: снимаются с начала расписания
+        void removeEndedBy(LocalDateTime now) {
+            while (root != null) {
+                Node first = min(root);
+                if (first.slot.getEnd().isAfter(now)) {
+                    return;
+                }
+                root = delete(root, first.slot);
+            }
+        }
+
+        // Интервалы [start, end) пересекаются, если каждый начинается раньше конца другого.
+        // Если в левом поддереве есть бронь с концом после start, но она не пересекается с [start, end),
+        // то она начинается не раньше end, и в правом поддереве пересечений тоже нет
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            if (!start.isBefore(end)) {
+                return false;
+            }
+
+            Node node = root;
+            while (node != null) {
+                if (node.slot.getStart().isBefore(end) && node.slot.getEnd().isAfter(start)) {
+                    return true;
+                }
+                node = node.left != null && node.left.maxEnd.isAfter(start) ? node.left : node.right;
+            }
+            return false;
+        }
+
+        // Ближайшая мешающая бронь - самая ранняя из заканчивающихся после кандидата;
+        // если она начинается раньше конца окна, окно сдвигается на её конец
+        LocalDateTime nextFree(LocalDateTime from, Duration duration) {
+            LocalDateTime candidate = from;
+
+            Node blocking = firstEndingAfter(candidate);
+            while (blocking != null && blocking.slot.getStart().isBefore(candidate.plus(duration))) {
+                candidate = blocking.slot.getEnd();
+                blocking = firstEndingAfter(candidate);
+            }
+            return candidate;
+        }
+
+        private Node firstEndingAfter(LocalDateTime moment) {
+            Node node = root;
+            while (node != null) {
+                if (node.left != null && node.left.maxEnd.isAfter(moment)) {
+                    node = node.left;
+                } else if (node.slot.getEnd().isAfter(moment)) {
+                    return node;
+                } else {
+                    node = node.right;
+                }
+            }
+            return null;
+        }
+
+        private static Node insert(Node node, Slot slot) {
+            if (node == null) {
+                return new Node(slot);
+            }
+
+            int order = ORDER.compare(slot, node.slot);
+            if (order < 0) {
+                node.left = insert(node.left, slot);
+            } else if (order > 0) {
+                node.right = insert(node.right, slot);
+            } else {
+                return node;
+            }
+            return balance(node);
+        }
+
+        private static Node delete(Node node, Slot slot) {
+            if (node == null) {
+                return null;
+            }
+
+            int order = ORDER.compare(slot, node.slot);
+            if (order < 0) {
+                node.left = delete(node.left, slot);
+            } else if (order > 0) {
+                node.right = delete(node.right, slot);
+            } else {
+                if (node.left == null) {
+                    return node.right;
+                }
+                if (node.right == null) {
+                    return node.left;
+                }
+                node.slot = min(node.right).slot;
+                node.right = deleteMin(node.right);
+            }
+            return balance(node);
+        }
+
+        private static Node deleteMin(Node node) {
+            if (node.left == null) {
+                return node.right;
+            }
+            node.left = deleteMin(node.left);
+            return balance(node);
+        }
+
+        private static Node min(Node node) {
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+
+        private static Node balance(Node node) {
+            node.update();
+            int skew = height(node.left) - height(node.right);
+            if (skew > 1) {
+                if (height(node.left.left) < height(node.left.right)) {
+                    node.left = rotateLeft(node.left);
+                }
+                return rotateRight(node);
+            }
+            if (skew < -1) {
+                if (height(node.right.right) < height(node.right.left)) {
+                    node.right = rotateRight(node.right);
+                }
+                return rotateLeft(node);
+            }
+            return node;
+        }
+
+        private static Node rotateRight(Node node) {
+            Node left = node.left;
+            node.left = left.right;
+            left.right = node;
+            node.update();
+            left.update();
+            return left;
+        }
+
+        private static Node rotateLeft(Node node) {
+            Node right = node.right;
+            node.right = right.left;
+            right.left = node;
+            node.update();
+            right.update();
+            return right;
+        }
+
+        private static int height(Node node) {
+            return node == null ? 0 : node.height;
+        }
+    }
+
+    private static class Node {
+
+        private Slot slot;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        private LocalDateTime maxEnd;
+
+        Node(Slot slot) {
+            this.slot = slot;
+            this.maxEnd = slot.getEnd();
+        }
+
+        void update() {
+            height = 1 + Math.max(ItemSchedule.height(left), ItemSchedule.height(right));
+            maxEnd = slot.getEnd();
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
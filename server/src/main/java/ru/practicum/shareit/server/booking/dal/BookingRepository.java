@@ -1,11 +1,16 @@
 package ru.practicum.shareit.server.booking.dal;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.TimeInterval;
 import ru.practicum.shareit.server.user.model.User;
 
 import java.time.LocalDateTime;
@@ -16,68 +21,179 @@ import java.util.Optional;
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    // Все бронирования пользователя, отсортированные по дате, с определенным статусом
-    Collection<Booking> findBookingsByBookerAndStatusOrderByStartDesc(User booker, BookingStatus status);
+    // Все выборки списков сразу подгружают item и booker (EntityGraph),
+    // иначе при маппинге в dto на каждое бронирование уходит ещё по два запроса.
+
+    // Условие keyset-пагинации: записи строго после курсора в порядке (start DESC, id DESC)
+    String AFTER_CURSOR = "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) ";
+
+    String PAGE_ORDER = "ORDER BY b.start DESC, b.id DESC";
 
+    // Все бронирования пользователя, отсортированные по дате, с определенным статусом
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker = :user AND b.status = :status " +
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findBookingsByBookerAndStatus(@Param("user") User booker,
+                                                @Param("status") BookingStatus status,
+                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable page);
 
     // Все бронирования пользователя, отсортированные по дате
-    Collection<Booking> findBookingsByBookerOrderByStartDesc(User booker);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker = :user " +
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findBookingsByBooker(@Param("user") User booker,
+                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable page);
 
     // Текущие бронирования: APPROVED и start <= now <= end
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker = :user AND b.status = 'APPROVED' " +
             "AND b.start <= CURRENT_TIMESTAMP AND b.end >= CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findCurrentBookings(@Param("user") User user);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findCurrentBookings(@Param("user") User user,
+                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable page);
 
     // Прошедшие бронирования: APPROVED и end < now
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker = :user AND b.status = 'APPROVED' " +
             "AND b.end < CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findPastBookings(@Param("user") User user);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findPastBookings(@Param("user") User user,
+                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable page);
 
     // Будущие бронирования: APPROVED и start > now
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker = :user AND b.status = 'APPROVED' " +
             "AND b.start > CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findFutureBookings(@Param("user") User user);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findFutureBookings(@Param("user") User user,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner = :ownerId AND b.status = 'APPROVED' " +
             "AND b.start <= CURRENT_TIMESTAMP AND b.end >= CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findCurrentBookingsByOwner(@Param("ownerId") Long ownerId);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findCurrentBookingsByOwner(@Param("ownerId") Long ownerId,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner = :ownerId AND b.status = 'APPROVED' " +
             "AND b.end < CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findPastBookingsByOwner(@Param("ownerId") Long ownerId);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findPastBookingsByOwner(@Param("ownerId") Long ownerId,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable page);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner = :ownerId AND b.status = 'APPROVED' " +
             "AND b.start > CURRENT_TIMESTAMP " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findFutureBookingsByOwner(@Param("ownerId") Long ownerId);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findFutureBookingsByOwner(@Param("ownerId") Long ownerId,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable page);
 
     // Все бронирования владельца, отсортированные по дате, с определенным статусом
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner = :ownerId AND b.status = :status " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findBookingsByOwnerAndStatus(@Param("ownerId") Long ownerId, @Param("status") BookingStatus status);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findBookingsByOwnerAndStatus(@Param("ownerId") Long ownerId,
+                                               @Param("status") BookingStatus status,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable page);
 
     // Все бронирования владельца, отсортированные по дате
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner = :ownerId " +
-            "ORDER BY b.start DESC")
-    Collection<Booking> findAllBookingsByOwner(@Param("ownerId") Long ownerId);
+            AFTER_CURSOR + PAGE_ORDER)
+    List<Booking> findAllBookingsByOwner(@Param("ownerId") Long ownerId,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable page);
 
     Optional<Booking> findTopByItemIdAndStartAfterOrderByStartAsc(Long id, LocalDateTime now);
 
     Optional<Booking> findTopByItemIdAndEndBeforeOrderByEndDesc(Long id, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.id IN :itemIds AND b.status = 'APPROVED' ORDER BY b.start DESC")
-    List<Booking> findApprovedBookingsByItemIdsOrderByDesc(@Param("itemIds") List<Long> itemIds);
+    // Было ли у пользователя закончившееся бронирование вещи с таким статусом (право оставить комментарий)
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime now);
+
+    // Сколько начал и концов бронирований вещи уже наступило к now: число меняется ровно тогда,
+    // когда время проходит границу, от которой зависят последнее и следующее бронирование
+    @Query("SELECT COUNT(CASE WHEN b.start <= :now THEN 1 END) + COUNT(CASE WHEN b.end <= :now THEN 1 END) " +
+            "FROM Booking b WHERE b.item.id = :itemId")
+    long countPassedBoundaries(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    // Для каждой вещи из списка одной агрегацией: конец последнего прошедшего и начало ближайшего
+    // будущего APPROVED бронирования. Сами бронирования в память не поднимаются.
+    @Query("SELECT b.item.id AS itemId, " +
+            "MAX(CASE WHEN b.end < :now THEN b.end END) AS lastBooking, " +
+            "MIN(CASE WHEN b.start > :now THEN b.start END) AS nextBooking " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = 'APPROVED' " +
+            "GROUP BY b.item.id")
+    List<ItemBookingDates> findApprovedBookingDatesByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                             @Param("now") LocalDateTime now);
+
+    // Смена статуса одним условным UPDATE: строка меняется, только если статус всё ещё expected.
+    // Из одновременных переходов одного бронирования проходит ровно один, остальные получают 0 без блокировок.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id = :id AND b.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expected") BookingStatus expected,
+                            @Param("status") BookingStatus status);
+
+    // То же для пакета бронирований, одним UPDATE; возвращает число изменённых строк
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids AND b.status = :expected")
+    int compareAndSetStatuses(@Param("ids") Collection<Long> ids,
+                              @Param("expected") BookingStatus expected,
+                              @Param("status") BookingStatus status);
+
+    // Владелец вещи, статус и интервал бронирований из списка одним запросом, без загрузки сущностей
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.item.owner AS ownerId, b.status AS status, " +
+            "b.start AS startDate, b.end AS endDate " +
+            "FROM Booking b WHERE b.id IN :ids")
+    List<BookingDecisionTarget> findDecisionTargets(@Param("ids") Collection<Long> ids);
+
+    // Интервалы бронирований вещи в заданных статусах, пересекающие [from, to), в порядке начала:
+    // календарь занятости читает из БД только свой диапазон (индексы по item_id и датам)
+    @Query("SELECT new ru.practicum.shareit.server.booking.model.TimeInterval(b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status IN :statuses AND b.end > :from AND b.start < :to " +
+            "ORDER BY b.start, b.id")
+    List<TimeInterval> findIntervalsBetween(@Param("itemId") Long itemId,
+                                            @Param("statuses") Collection<BookingStatus> statuses,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Незакончившиеся бронирования вещи в заданных статусах, для загрузки расписания в BookingIntervalIndex
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                        LocalDateTime now);
 }
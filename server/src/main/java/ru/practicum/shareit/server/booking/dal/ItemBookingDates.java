@@ -0,0 +1,13 @@
+package ru.practicum.shareit.server.booking.dal;
+
+import java.time.LocalDateTime;
+
+// Проекция: конец последнего завершившегося и начало ближайшего будущего бронирования вещи
+public interface ItemBookingDates {
+
+    Long getItemId();
+
+    LocalDateTime getLastBooking();
+
+    LocalDateTime getNextBooking();
+}
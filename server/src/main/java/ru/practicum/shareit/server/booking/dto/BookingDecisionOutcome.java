@@ -0,0 +1,11 @@
+package ru.practicum.shareit.server.booking.dto;
+
+// Итог решения по бронированию: применено (APPROVED, REJECTED) или почему нет
+public enum BookingDecisionOutcome {
+    APPROVED,
+    REJECTED,
+    NOT_FOUND,
+    FORBIDDEN,
+    // решение по бронированию уже принято, в том числе параллельным запросом
+    NOT_WAITING
+}
@@ -37,4 +37,14 @@ public class BookingMapper {
 
         return newBooking;
     }
+
+    public static BookingDecisionResultDto toBookingDecisionResultDto(Long bookingId, BookingDecisionOutcome outcome) {
+
+        BookingDecisionResultDto dto = new BookingDecisionResultDto();
+
+        dto.setBookingId(bookingId);
+        dto.setOutcome(outcome);
+
+        return dto;
+    }
 }
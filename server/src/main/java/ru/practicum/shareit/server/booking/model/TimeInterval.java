@@ -0,0 +1,15 @@
+package ru.practicum.shareit.server.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Полуинтервал времени [start, end)
+@Data
+@AllArgsConstructor
+public class TimeInterval {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.server.booking.service;
 
 import ru.practicum.shareit.server.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 
-import java.util.Collection;
+import java.util.List;
 
 public interface BookingService {
 
@@ -11,9 +14,15 @@ public interface BookingService {
 
     BookingResponseDto updateBooking(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingDecisionResultDto> decideBookings(Long ownerId, List<BookingDecisionDto> decisions);
+
     BookingResponseDto getBookingById(Long bookingIdm, Long userId);
 
-    Collection<BookingResponseDto> getAllBookingAtState(Long userId, String state);
+    String getBookingETag(Long bookingId, Long userId);
+
+    String getBookingsETag(Long userId, boolean owner);
+
+    KeysetPage<BookingResponseDto> getAllBookingAtState(Long userId, String state, String cursor, Integer size);
 
-    Collection<BookingResponseDto> getAllOwnerBookingAtState(Long userId, String state);
+    KeysetPage<BookingResponseDto> getAllOwnerBookingAtState(Long userId, String state, String cursor, Integer size);
 }
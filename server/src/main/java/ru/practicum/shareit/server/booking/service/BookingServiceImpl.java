@@ -1,26 +1,40 @@
 package ru.practicum.shareit.server.booking.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.booking.dal.BookingDecisionTarget;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.server.booking.dal.BookingRepository;
 import ru.practicum.shareit.server.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionOutcome;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingMapper;
 import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.server.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
+import ru.practicum.shareit.server.exception.ConflictException;
 import ru.practicum.shareit.server.exception.ForbiddenException;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dal.ItemRepository;
 import ru.practicum.shareit.server.item.dto.ItemMapper;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.user.dal.UserRepository;
 import ru.practicum.shareit.server.user.dto.UserMapper;
 import ru.practicum.shareit.server.user.model.User;
 
-import java.util.Collection;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 // Логирование ошибок в ErrorResponse, логирование запросов - org.zalando
@@ -31,6 +45,9 @@ public class BookingServiceImpl implements BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final ApplicationEventPublisher events;
+    private final ResourceVersions versions;
 
     private static final BookingStatus FIRST_BOOKING_STATUS = BookingStatus.WAITING;
 
@@ -45,11 +62,20 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Item with id=" + item.getId() + " not available");
         }
 
+        if (!dto.getStart().isBefore(dto.getEnd())) {
+            throw new ValidationException("End date must be after start date");
+        }
 
         Booking newBooking = BookingMapper.toBooking(booker, item, dto, FIRST_BOOKING_STATUS);
 
+        // Проверка пересечения с WAITING и APPROVED бронированиями и сохранение - атомарно для вещи
+        Booking savedBooking = intervalIndex.reserve(newBooking, bookingRepository::save);
+
+        // даты бронирований показываются владельцу в ответе о вещи
+        events.publishEvent(GatewayCacheInvalidation.items(item.getId()));
+        events.publishEvent(GatewayCacheInvalidation.bookings(savedBooking.getId()));
 
-        return BookingMapper.toBookingResponseDto(bookingRepository.save(newBooking),
+        return BookingMapper.toBookingResponseDto(savedBooking,
                 ItemMapper.toItemResponseDto(newBooking.getItem()),
                 UserMapper.toShortUserResponseDto(newBooking.getBooker()));
     }
@@ -65,84 +91,203 @@ public class BookingServiceImpl implements BookingService {
             throw new ForbiddenException("Only item owner can change booking approve");
         }
 
-        if (booking.getStatus().equals(BookingStatus.WAITING)) {
-            if (approved) {
-                booking.setStatus(BookingStatus.APPROVED);
-            } else {
-                booking.setStatus(BookingStatus.REJECTED);
-            }
-        } else {
+        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
             throw new ValidationException("Booking can approved or rejected in WAITING status");
         }
 
-        bookingRepository.save(booking);
+        // Проверка выше могла устареть: решение по бронированию уже принято параллельным запросом
+        BookingStatus decision = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.compareAndSetStatus(bookingId, BookingStatus.WAITING, decision) == 0) {
+            throw new ConflictException("Booking with id=" + bookingId + " was already approved or rejected");
+        }
+        booking.setStatus(decision);
+
+        // Отклонённое бронирование больше не занимает вещь
+        if (booking.getStatus() == BookingStatus.REJECTED) {
+            intervalIndex.release(booking);
+        }
+        events.publishEvent(GatewayCacheInvalidation.items(booking.getItem().getId()));
+        events.publishEvent(GatewayCacheInvalidation.bookings(bookingId));
 
         return BookingMapper.toBookingResponseDto(booking,
                 ItemMapper.toItemResponseDto(booking.getItem()),
                 UserMapper.toShortUserResponseDto(booking.getBooker()));
     }
 
+    // Пакет решений владельца: владелец и статус всех бронирований читаются одним запросом,
+    // одобрения и отклонения применяются двумя условными UPDATE. Бронирования, по которым решение
+    // принять нельзя, не мешают остальным: итог возвращается по каждому id в порядке запроса.
     @Override
-    public BookingResponseDto getBookingById(Long bookingId, Long userId) {
+    public List<BookingDecisionResultDto> decideBookings(Long ownerId, List<BookingDecisionDto> decisions) {
 
+        User owner = checkAndgetUser(ownerId);
 
-        User user = checkAndgetUser(userId);
-        Booking booking = checkAndGetBooking(bookingId);
+        Set<Long> ids = decisions.stream().map(BookingDecisionDto::getBookingId).collect(Collectors.toSet());
+        if (ids.size() < decisions.size()) {
+            throw new ValidationException("Each booking can be decided only once in a batch");
+        }
 
-        // Может быть выполнено либо автором бронирования, либо владельцем вещи, к которой относится бронирование
-        if (!(user.getId().equals(booking.getBooker().getId()) ||
-                user.getId().equals(booking.getItem().getOwner()))) {
-            throw new ForbiddenException("Only item owner or booker can get booking");
+        Map<Long, BookingDecisionTarget> targets = bookingRepository.findDecisionTargets(ids).stream()
+                .collect(Collectors.toMap(BookingDecisionTarget::getId, Function.identity()));
+
+        Map<Long, BookingDecisionOutcome> outcomes = new HashMap<>();
+        List<Long> toApprove = new ArrayList<>();
+        List<Long> toReject = new ArrayList<>();
+        for (BookingDecisionDto decision : decisions) {
+            BookingDecisionTarget target = targets.get(decision.getBookingId());
+            if (target == null) {
+                outcomes.put(decision.getBookingId(), BookingDecisionOutcome.NOT_FOUND);
+            } else if (!target.getOwnerId().equals(owner.getId())) {
+                outcomes.put(decision.getBookingId(), BookingDecisionOutcome.FORBIDDEN);
+            } else if (target.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(decision.getBookingId(), BookingDecisionOutcome.NOT_WAITING);
+            } else {
+                (decision.getApproved() ? toApprove : toReject).add(decision.getBookingId());
+            }
+        }
+
+        applyDecisions(toApprove, BookingStatus.APPROVED, outcomes);
+        applyDecisions(toReject, BookingStatus.REJECTED, outcomes);
+
+        Set<Long> decidedItemIds = new HashSet<>();
+        List<Long> decidedIds = new ArrayList<>();
+        for (Long id : ids) {
+            BookingDecisionOutcome outcome = outcomes.get(id);
+            if (outcome != BookingDecisionOutcome.APPROVED && outcome != BookingDecisionOutcome.REJECTED) {
+                continue;
+            }
+            BookingDecisionTarget target = targets.get(id);
+            decidedIds.add(id);
+            decidedItemIds.add(target.getItemId());
+            // Отклонённое бронирование больше не занимает вещь
+            if (outcome == BookingDecisionOutcome.REJECTED) {
+                intervalIndex.release(target.getItemId(), id, target.getStartDate(), target.getEndDate());
+            }
+        }
+        if (!decidedIds.isEmpty()) {
+            events.publishEvent(GatewayCacheInvalidation.items(decidedItemIds.toArray(Long[]::new)));
+            events.publishEvent(GatewayCacheInvalidation.bookings(decidedIds.toArray(Long[]::new)));
+        }
+
+        return decisions.stream()
+                .map(decision -> BookingMapper.toBookingDecisionResultDto(decision.getBookingId(),
+                        outcomes.get(decision.getBookingId())))
+                .toList();
+    }
+
+    // Если UPDATE изменил не все строки, часть бронирований между чтением и UPDATE решил параллельный запрос:
+    // итог по ним определяется перечитанным статусом
+    private void applyDecisions(List<Long> ids, BookingStatus status, Map<Long, BookingDecisionOutcome> outcomes) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        BookingDecisionOutcome applied = BookingDecisionOutcome.valueOf(status.name());
+        if (bookingRepository.compareAndSetStatuses(ids, BookingStatus.WAITING, status) == ids.size()) {
+            ids.forEach(id -> outcomes.put(id, applied));
+            return;
+        }
+
+        Map<Long, BookingStatus> current = bookingRepository.findDecisionTargets(ids).stream()
+                .collect(Collectors.toMap(BookingDecisionTarget::getId, BookingDecisionTarget::getStatus));
+        for (Long id : ids) {
+            BookingStatus actual = current.get(id);
+            if (actual == null) {
+                outcomes.put(id, BookingDecisionOutcome.NOT_FOUND);
+            } else {
+                outcomes.put(id, actual == status ? applied : BookingDecisionOutcome.NOT_WAITING);
+            }
         }
+    }
+
+    @Override
+    public BookingResponseDto getBookingById(Long bookingId, Long userId) {
+
+
+        Booking booking = checkAndGetAccessibleBooking(bookingId, userId);
 
         return BookingMapper.toBookingResponseDto(booking,
                 ItemMapper.toItemResponseDto(booking.getItem()),
                 UserMapper.toShortUserResponseDto(booking.getBooker()));
     }
 
+    // Автор и владелец вещи видят одно и то же, тег от пользователя не зависит, но выдаётся только им
     @Override
-    public Collection<BookingResponseDto> getAllBookingAtState(Long userId, String state) {
+    public String getBookingETag(Long bookingId, Long userId) {
+        checkAndGetAccessibleBooking(bookingId, userId);
+        return versions.resourceTag(GatewayCacheRegion.BOOKINGS, bookingId);
+    }
+
+    // Списки у каждого пользователя свои: свои бронирования и бронирования его вещей
+    @Override
+    public String getBookingsETag(Long userId, boolean owner) {
+        checkAndgetUser(userId);
+        return versions.listTag(GatewayCacheRegion.BOOKINGS, owner ? "owner" : "booker", userId);
+    }
+
+    @Override
+    public KeysetPage<BookingResponseDto> getAllBookingAtState(Long userId, String state, String cursor, Integer size) {
 
         BookingStatusDto stateDTO = getBookingStatusDto(state);
+        Pageable page = getPage(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
         User booker = checkAndgetUser(userId);
 
-        Collection<Booking> bookings = switch (stateDTO) {
-            case ALL -> bookingRepository.findBookingsByBookerOrderByStartDesc(booker);
-            case CURRENT -> bookingRepository.findCurrentBookings(booker);
-            case PAST -> bookingRepository.findPastBookings(booker);
-            case FUTURE -> bookingRepository.findFutureBookings(booker);
-            default -> bookingRepository.findBookingsByBookerAndStatusOrderByStartDesc(
-                    booker, BookingStatus.valueOf(stateDTO.name()));
+        List<Booking> bookings = switch (stateDTO) {
+            case ALL -> bookingRepository.findBookingsByBooker(
+                    booker, after.getPosition(), after.getId(), page);
+            case CURRENT -> bookingRepository.findCurrentBookings(
+                    booker, after.getPosition(), after.getId(), page);
+            case PAST -> bookingRepository.findPastBookings(
+                    booker, after.getPosition(), after.getId(), page);
+            case FUTURE -> bookingRepository.findFutureBookings(
+                    booker, after.getPosition(), after.getId(), page);
+            default -> bookingRepository.findBookingsByBookerAndStatus(
+                    booker, BookingStatus.valueOf(stateDTO.name()), after.getPosition(), after.getId(), page);
         };
 
-        return bookings.stream()
-                .map(booking -> BookingMapper.toBookingResponseDto(booking,
-                        ItemMapper.toItemResponseDto(booking.getItem()),
-                        UserMapper.toShortUserResponseDto(booking.getBooker())))
-                .collect(Collectors.toSet());
-
+        return toPage(bookings, size);
     }
 
 
     @Override
-    public Collection<BookingResponseDto> getAllOwnerBookingAtState(Long userId, String state) {
+    public KeysetPage<BookingResponseDto> getAllOwnerBookingAtState(Long userId, String state, String cursor, Integer size) {
         BookingStatusDto stateDTO = getBookingStatusDto(state);
+        Pageable page = getPage(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
         User booker = checkAndgetUser(userId);
 
-        Collection<Booking> bookings = switch (stateDTO) {
-            case ALL -> bookingRepository.findAllBookingsByOwner(booker.getId());
-            case CURRENT -> bookingRepository.findCurrentBookingsByOwner(booker.getId());
-            case PAST -> bookingRepository.findPastBookingsByOwner(booker.getId());
-            case FUTURE -> bookingRepository.findFutureBookingsByOwner(booker.getId());
+        List<Booking> bookings = switch (stateDTO) {
+            case ALL -> bookingRepository.findAllBookingsByOwner(
+                    booker.getId(), after.getPosition(), after.getId(), page);
+            case CURRENT -> bookingRepository.findCurrentBookingsByOwner(
+                    booker.getId(), after.getPosition(), after.getId(), page);
+            case PAST -> bookingRepository.findPastBookingsByOwner(
+                    booker.getId(), after.getPosition(), after.getId(), page);
+            case FUTURE -> bookingRepository.findFutureBookingsByOwner(
+                    booker.getId(), after.getPosition(), after.getId(), page);
             default -> bookingRepository.findBookingsByOwnerAndStatus(
-                    booker.getId(), BookingStatus.valueOf(stateDTO.name()));
+                    booker.getId(), BookingStatus.valueOf(stateDTO.name()), after.getPosition(), after.getId(), page);
         };
 
-        return bookings.stream()
+        return toPage(bookings, size);
+    }
+
+    private KeysetPage<BookingResponseDto> toPage(List<Booking> bookings, Integer size) {
+        List<BookingResponseDto> content = bookings.stream()
                 .map(booking -> BookingMapper.toBookingResponseDto(booking,
                         ItemMapper.toItemResponseDto(booking.getItem()),
                         UserMapper.toShortUserResponseDto(booking.getBooker())))
-                .collect(Collectors.toSet());
+                .toList();
+
+        return KeysetPage.of(content, size, last -> KeysetCursor.encode(last.getStart(), last.getId()));
+    }
+
+    private Pageable getPage(Integer size) {
+        if (size == null || size < 1) {
+            throw new ValidationException("Invalid size=" + size);
+        }
+        return PageRequest.of(0, size);
     }
 
 
@@ -170,6 +315,18 @@ public class BookingServiceImpl implements BookingService {
         return item;
     }
 
+    private Booking checkAndGetAccessibleBooking(Long bookingId, Long userId) {
+        User user = checkAndgetUser(userId);
+        Booking booking = checkAndGetBooking(bookingId);
+
+        // Может быть выполнено либо автором бронирования, либо владельцем вещи, к которой относится бронирование
+        if (!(user.getId().equals(booking.getBooker().getId()) ||
+                user.getId().equals(booking.getItem().getOwner()))) {
+            throw new ForbiddenException("Only item owner or booker can get booking");
+        }
+        return booking;
+    }
+
     private Booking checkAndGetBooking(Long id) {
 
         Optional<Booking> maybeBooking = bookingRepository.findById(id);
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.server.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+// Событие изменения данных, после которого gateway должен сбросить закэшированные ответы,
+// а ResourceVersions - сменить ETag. Затрагиваются ответы по перечисленным id и все списки группы; без id - вся группа.
+@Getter
+@AllArgsConstructor
+public class GatewayCacheInvalidation {
+
+    private final GatewayCacheRegion region;
+    private final Collection<Long> ids;
+
+    public static GatewayCacheInvalidation items(Long... ids) {
+        return new GatewayCacheInvalidation(GatewayCacheRegion.ITEMS, List.of(ids));
+    }
+
+    public static GatewayCacheInvalidation requests(Long... ids) {
+        return new GatewayCacheInvalidation(GatewayCacheRegion.REQUESTS, List.of(ids));
+    }
+
+    public static GatewayCacheInvalidation bookings(Long... ids) {
+        return new GatewayCacheInvalidation(GatewayCacheRegion.BOOKINGS, List.of(ids));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.server.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Рассылает события GatewayCacheInvalidation в gateway (POST {url}/cache/invalidations).
+// Отправка асинхронная и без повторов: запрос на запись не ждёт gateway, а если уведомление
+// потерялось, устаревший ответ проживёт в кэше gateway не дольше его TTL.
+@Slf4j
+@Component
+public class GatewayCacheNotifier {
+
+    public static final String TOKEN_HEADER = "X-Cache-Invalidation-Token";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    private final RestClient restClient;
+    private final List<String> gatewayUrls;
+    private final String token;
+    private final Executor executor;
+
+    @Autowired
+    public GatewayCacheNotifier(RestClient.Builder restClientBuilder,
+                                @Value("${shareit.gateway-cache.invalidation-urls:}") List<String> gatewayUrls,
+                                @Value("${shareit.gateway-cache.token:}") String token) {
+        this(restClientBuilder.requestFactory(requestFactory()).build(), gatewayUrls, token,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    GatewayCacheNotifier(RestClient restClient, List<String> gatewayUrls, String token, Executor executor) {
+        // gateway без токена кэш не включает, а уведомления без него отклоняет
+        if (!gatewayUrls.isEmpty() && token.isBlank()) {
+            log.warn("Gateway cache invalidations are disabled: shareit.gateway-cache.token is not set");
+        }
+        this.restClient = restClient;
+        this.gatewayUrls = token.isBlank() ? List.of() : gatewayUrls;
+        this.token = token;
+        this.executor = executor;
+    }
+
+    @EventListener
+    public void onInvalidation(GatewayCacheInvalidation invalidation) {
+        Map<String, Object> body = Map.of("region", invalidation.getRegion(), "ids", invalidation.getIds());
+
+        for (String url : gatewayUrls) {
+            executor.execute(() -> send(url, body));
+        }
+    }
+
+    private void send(String url, Map<String, Object> body) {
+        try {
+            restClient.post()
+                    .uri(url + "/cache/invalidations")
+                    .header(TOKEN_HEADER, token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            log.warn("Gateway cache invalidation {} not delivered to {}: {}", body, url, e.getMessage());
+        }
+    }
+
+    private static SimpleClientHttpRequestFactory requestFactory() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT);
+        requestFactory.setReadTimeout(TIMEOUT);
+        return requestFactory;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.server.cache;
+
+// Группы ответов, которые gateway кэширует и сбрасывает вместе; по ним же растут версии ETag (ResourceVersions)
+public enum GatewayCacheRegion {
+    // GET /items/{itemId}, /items/search
+    ITEMS,
+    // GET /requests, /requests/all, /requests/{requestId}
+    REQUESTS,
+    // GET /bookings/{bookingId}, /bookings, /bookings/owner; gateway их не кэширует
+    BOOKINGS
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.server.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Версии данных, из которых сервисы строят строгие ETag, не читая данные ответа и не сериализуя его.
+// Растут по тем же событиям GatewayCacheInvalidation, что сбрасывают кэш gateway: версия группы - при любом
+// изменении в ней, версия объекта - когда он назван по id; событие без id меняет версии всех объектов группы.
+// Сервисы публикуют события после сохранения, поэтому тег, посчитанный до чтения данных, не бывает новее их.
+// Версии живут в памяти экземпляра, как и BookingIntervalIndex; идентификатор запуска в теге не даёт
+// совпасть тегам до и после перезапуска server.
+// Версий объектов в памяти не больше shareit.etag.max-resources на группу: вытесненная версия меняет версии
+// всех объектов группы, иначе объект вернулся бы к версии 0 и совпал со своим старым тегом.
+@Component
+public class ResourceVersions {
+
+    private final String instance = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+
+    private final Map<GatewayCacheRegion, RegionVersions> regions = new EnumMap<>(GatewayCacheRegion.class);
+
+    public ResourceVersions(@Value("${shareit.etag.max-resources:100000}") long maxResources) {
+        for (GatewayCacheRegion region : GatewayCacheRegion.values()) {
+            regions.put(region, new RegionVersions(maxResources));
+        }
+    }
+
+    @EventListener
+    public void onChange(GatewayCacheInvalidation change) {
+        RegionVersions versions = regions.get(change.getRegion());
+
+        versions.lists.incrementAndGet();
+        if (change.getIds().isEmpty()) {
+            versions.all.incrementAndGet();
+        }
+        change.getIds().forEach(id -> versions.resources.asMap().merge(id, 1L, Long::sum));
+    }
+
+    // ETag списков группы: меняется при любом изменении в ней; details - от чего ещё зависит список
+    // (например, чей он)
+    public String listTag(GatewayCacheRegion region, Object... details) {
+        return tag(region, Stream.concat(Stream.of(regions.get(region).lists.get()), Stream.of(details)));
+    }
+
+    // ETag объекта; details - то, от чего ответ зависит помимо данных группы
+    public String resourceTag(GatewayCacheRegion region, Long id, Object... details) {
+        RegionVersions versions = regions.get(region);
+        // версия объекта читается раньше версии группы: если её уже вытеснили, версия группы уже выросла
+        long resource = versions.resources.asMap().getOrDefault(id, 0L);
+        return tag(region, Stream.concat(
+                Stream.of(versions.all.get(), resource),
+                Stream.of(details)));
+    }
+
+    private String tag(GatewayCacheRegion region, Stream<?> versions) {
+        return Stream.concat(Stream.of(instance, region.name().toLowerCase()), versions)
+                .map(String::valueOf)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    private static class RegionVersions {
+        private final AtomicLong lists = new AtomicLong();
+        private final AtomicLong all = new AtomicLong();
+        private final Cache<Long, Long> resources;
+
+        RegionVersions(long maxResources) {
+            // evictionListener вызывается в той же атомарной операции, что удаляет версию; вытеснение идёт
+            // в потоке записи, без отложенной очистки в общем пуле
+            resources = Caffeine.newBuilder()
+                    .maximumSize(maxResources)
+                    .executor(Runnable::run)
+                    .<Long, Long>evictionListener((id, version, cause) -> all.incrementAndGet())
+                    .build();
+        }
+    }
+}
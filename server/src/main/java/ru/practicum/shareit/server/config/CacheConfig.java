@@ -0,0 +1,16 @@
+package ru.practicum.shareit.server.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Кэши Caffeine (W-TinyLFU) с ограничением по размеру и TTL.
+// Имена кэшей и spec задаются в application.properties (spring.cache.*),
+// метрики попаданий/промахов - actuator, /actuator/metrics/cache.gets
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    public static final String ITEMS_CACHE = "items";
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.server.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import ru.practicum.shareit.common.compression.CompressionProperties;
+import ru.practicum.shareit.common.compression.ResponseCompressionFilter;
+
+// Сжатие ответов (shareit.compression.*), если клиент (обычно gateway) принимает выбранный алгоритм.
+// Фильтр стоит снаружи ShallowEtagHeaderFilter: ETag считается по несжатому телу и при сжатии становится слабым.
+@Configuration
+public class CompressionConfig {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    @Bean
+    @ConfigurationProperties(prefix = "shareit.compression")
+    public CompressionProperties compressionProperties() {
+        return new CompressionProperties();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(
+            CompressionProperties compressionProperties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCompressionFilter(compressionProperties, meterRegistry, "shareit.response.compression.saved"));
+        registration.setOrder(ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.server.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// Строгие ETag для GET. Сервисы считают ETag из версий данных (ResourceVersions) после проверки пользователя
+// и доступа, controller'ы на совпавший тег отвечают 304 без чтения данных ответа. Остальным ответам (списки,
+// зависящие от времени, пользователи) ETag по хэшу тела ставит фильтр: сериализация остаётся, но неизменившийся
+// ответ уходит как 304 без тела.
+// ETag, уже выставленный controller'ом, фильтр не пересчитывает. Vary по пользователю ставит VaryByUserFilter.
+@Configuration
+public class ETagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/items/*", "/bookings/*", "/requests/*", "/users/*");
+        return registration;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.server.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Ответы зависят от X-Sharer-User-Id (чьи списки, владелец ли вещи), а ETag и 304 у них есть:
+// Vary не даёт общему HTTP-кэшу отдать ответ или подтвердить тег другому пользователю
+@Component
+public class VaryByUserFilter extends OncePerRequestFilter {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, USER_HEADER);
+        chain.doFilter(request, response);
+    }
+}
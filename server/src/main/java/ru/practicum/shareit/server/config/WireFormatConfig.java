@@ -0,0 +1,22 @@
+package ru.practicum.shareit.server.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Бинарный формат Smile для вызовов от gateway: те же DTO и тот же Jackson, но без разбора текста,
+// с короткими ссылками на повторяющиеся имена полей и числами в двоичном виде.
+// Выбирается заголовками Accept и Content-Type application/x-jackson-smile, остальным клиентам по-прежнему JSON.
+@Configuration
+public class WireFormatConfig {
+
+    // Встаёт на место конвертера Smile по умолчанию (после JSON), но с настройками ObjectMapper приложения
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false)
+                .factory(new SmileFactory())
+                .build());
+    }
+}
@@ -1,37 +1,38 @@
 package ru.practicum.shareit.server.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 
+// Ошибки всегда отдаются в JSON, даже если gateway просил Smile: текст ответа server gateway передаёт клиенту
 @RestControllerAdvice
 public class ErrorHandler {
 
     @ExceptionHandler(ValidationException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse exceptionHandler(ValidationException e) {
-        return new ErrorResponse("ValidationException", e.getMessage(), e.getStackTrace());
+    public ResponseEntity<ErrorResponse> exceptionHandler(ValidationException e) {
+        return error(HttpStatus.BAD_REQUEST, new ErrorResponse("ValidationException", e.getMessage(), e.getStackTrace()));
     }
 
     @ExceptionHandler(NotFoundException.class)
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ErrorResponse notFoundExceptionHandler(NotFoundException e) {
-        return new ErrorResponse("NotFoundException", e.getMessage(), e.getStackTrace());
+    public ResponseEntity<ErrorResponse> notFoundExceptionHandler(NotFoundException e) {
+        return error(HttpStatus.NOT_FOUND, new ErrorResponse("NotFoundException", e.getMessage(), e.getStackTrace()));
     }
 
     @ExceptionHandler({ConflictException.class})
-    @ResponseStatus(HttpStatus.CONFLICT)
-    public ErrorResponse conflictExceptionHandler(ConflictException e) {
-        return new ErrorResponse("ConflictException", e.getMessage(), e.getStackTrace());
+    public ResponseEntity<ErrorResponse> conflictExceptionHandler(ConflictException e) {
+        return error(HttpStatus.CONFLICT, new ErrorResponse("ConflictException", e.getMessage(), e.getStackTrace()));
     }
 
     @ExceptionHandler({ForbiddenException.class})
-    @ResponseStatus(HttpStatus.FORBIDDEN)
-    public ErrorResponse forbiddenExceptionHandler(ForbiddenException e) {
-        return new ErrorResponse("ForbiddenException", e.getMessage(), e.getStackTrace());
+    public ResponseEntity<ErrorResponse> forbiddenExceptionHandler(ForbiddenException e) {
+        return error(HttpStatus.FORBIDDEN, new ErrorResponse("ForbiddenException", e.getMessage(), e.getStackTrace()));
     }
 
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, ErrorResponse body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 
 }
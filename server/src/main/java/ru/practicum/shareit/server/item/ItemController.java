@@ -1,11 +1,30 @@
 package ru.practicum.shareit.server.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
 import ru.practicum.shareit.server.item.dto.*;
+import ru.practicum.shareit.server.item.service.ItemImportService;
 import ru.practicum.shareit.server.item.service.ItemService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 
 @RestController
@@ -13,7 +32,12 @@ import java.util.Collection;
 @AllArgsConstructor
 public class ItemController {
 
+    private static final String DEFAULT_COMMENTS_SIZE = "20";
+
     private final ItemService itemService;
+    private final ItemImportService importService;
+    private final ResourceVersions versions;
+    private final ObjectMapper mapper;
 
     @PostMapping
     public ItemResponseDto createItem(
@@ -24,6 +48,25 @@ public class ItemController {
         return itemService.createItem(newItem, userId);
     }
 
+    // Потоковый импорт: строка NDJSON на вещь, в ответ строка результата на каждую непустую строку.
+    // Результаты уходят клиенту порциями по мере сохранения, ни загрузка, ни ответ целиком в памяти не держатся
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(
+            @RequestHeader("X-Sharer-User-Id")
+            Long userId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        // ETag по содержимому потребовал бы собрать весь ответ
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            ServletOutputStream out = response.getOutputStream();
+            importService.importItems(userId, reader.lines(), results -> writeLines(out, results));
+        }
+    }
+
     @PatchMapping("/{itemId}")
     public ItemResponseDto updateItem(
             @PathVariable long itemId,
@@ -39,8 +82,18 @@ public class ItemController {
             @PathVariable
             Long itemId,
             @RequestHeader("X-Sharer-User-Id")
-            Long userId) {
-        return itemService.getItemById(itemId, userId);
+            Long userId,
+            @RequestParam(value = "commentsFrom", defaultValue = "0")
+            Integer commentsFrom,
+            @RequestParam(value = "commentsSize", defaultValue = DEFAULT_COMMENTS_SIZE)
+            Integer commentsSize,
+            WebRequest request) {
+        // ETag считается из версий данных: на совпавший If-None-Match - 304 без чтения бронирований,
+        // комментариев и сериализации
+        if (request.checkNotModified(itemService.getItemETag(itemId, userId))) {
+            return null;
+        }
+        return itemService.getItemById(itemId, userId, commentsFrom, commentsSize);
     }
 
     @GetMapping
@@ -54,10 +107,45 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id")
             Long userId,
             @RequestParam("text")
-            String searchString) {
+            String searchString,
+            WebRequest request) {
+        if (request.checkNotModified(versions.listTag(GatewayCacheRegion.ITEMS))) {
+            return null;
+        }
         return itemService.searchItems(searchString);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityResponseDto getItemAvailability(
+            @PathVariable
+            Long itemId,
+            @RequestHeader("X-Sharer-User-Id")
+            Long userId,
+            @RequestParam("from")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam("to")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to) {
+        return itemService.getItemAvailability(itemId, userId, from, to);
+    }
+
+    // Ближайшее окно длиной duration (ISO-8601, например PT2H) не раньше from, в которое вещь свободна.
+    // Окно с началом в from значит, что свободен сам запрошенный интервал
+    @GetMapping("/{itemId}/availability/next")
+    public IntervalDto getNextFreeSlot(
+            @PathVariable
+            Long itemId,
+            @RequestHeader("X-Sharer-User-Id")
+            Long userId,
+            @RequestParam("from")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam("duration")
+            Duration duration) {
+        return itemService.getNextFreeSlot(itemId, userId, from, duration);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentResponseDto addComment(
             @RequestBody
@@ -68,4 +156,15 @@ public class ItemController {
         return itemService.addComment(dto, itemId, userId);
     }
 
+    private void writeLines(ServletOutputStream out, List<ItemImportResultDto> results) {
+        try {
+            for (ItemImportResultDto result : results) {
+                out.write(mapper.writeValueAsBytes(result));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,16 +1,21 @@
 package ru.practicum.shareit.server.item.dal;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.server.item.model.Comment;
 
-import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    Collection<Comment> findAllByItemId(Long id);
+    // Страница комментариев вещи, новые сверху, имя автора подтягивается тем же запросом
+    @Query("SELECT c.id AS id, c.text AS text, c.created AS created, COALESCE(u.name, 'Unknown User') AS authorName " +
+            "FROM Comment c LEFT JOIN User u ON u.id = c.authorId " +
+            "WHERE c.itemId = :itemId " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<CommentWithAuthor> findCommentsWithAuthorByItemId(@Param("itemId") Long itemId, Pageable page);
 
     @Query("SELECT c FROM Comment c WHERE c.itemId IN :itemIds ORDER BY c.created DESC")
     List<Comment> findAllCommentsByItemIdsOrderByDesc(@Param("itemIds") List<Long> itemIds);
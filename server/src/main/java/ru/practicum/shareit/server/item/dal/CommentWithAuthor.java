@@ -0,0 +1,15 @@
+package ru.practicum.shareit.server.item.dal;
+
+import java.time.LocalDateTime;
+
+// Проекция: комментарий вместе с именем автора, собранная одним запросом
+public interface CommentWithAuthor {
+
+    Long getId();
+
+    String getText();
+
+    LocalDateTime getCreated();
+
+    String getAuthorName();
+}
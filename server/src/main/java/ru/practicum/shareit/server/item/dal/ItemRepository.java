@@ -1,25 +1,27 @@
 package ru.practicum.shareit.server.item.dal;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.server.config.CacheConfig;
 import ru.practicum.shareit.server.item.model.Item;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    // Чтение вещи по id идёт через кэш. Закэшированный объект общий для всех запросов и не должен изменяться:
+    // для изменения вещь читается через findById, после сохранения запись в кэше сбрасывается.
+    @Cacheable(cacheNames = CacheConfig.ITEMS_CACHE, unless = "#result == null")
     Optional<Item> getItemById(Long itemId);
 
     Collection<Item> findByOwner(Long ownerId);
 
-    @Query("SELECT i FROM Item i WHERE " +
-            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
-            "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
-            "AND i.available = true")
-    Collection<Item> searchItems(@Param("text") String text);
+    // Постраничная выборка по возрастанию id для построения поискового индекса
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     Collection<Item> findAllByRequestIn(Collection<Long> requests);
 
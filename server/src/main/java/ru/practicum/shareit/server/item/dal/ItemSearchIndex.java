@@ -0,0 +1,169 @@
+package ru.practicum.shareit.server.item.dal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Инвертированный индекс по словам названия и описания доступных вещей.
+// Слово запроса ищется как префикс слов вещи, поэтому поиск - это выборка диапазона
+// из отсортированного словаря и пересечение списков id, а не просмотр всей таблицы items.
+// В отличие от прежнего LIKE '%text%' совпадение ищется с начала слова: "дрел" находит "дрель", "рел" - нет.
+// Слово запроса короче MIN_PREFIX_LENGTH совпадает только с целым словом: префикс из одной-двух букв
+// объединял бы списки id почти всего словаря.
+// Прогрев читает вещи пачками и применяет их под той же блокировкой, что index и remove. Вещь, изменённая
+// до конца прогрева, из пачки не применяется: пачка могла быть прочитана раньше изменения и вернула бы
+// старые слова или удалённую из поиска вещь.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private final ItemRepository repository;
+
+    // слово -> id вещей, в которых оно встречается
+    private final ConcurrentNavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    // id вещи -> слова, под которыми она проиндексирована (нужно для переиндексации)
+    private final Map<Long, Set<String>> itemTokens = new ConcurrentHashMap<>();
+
+    // id вещей, изменённых через index и remove с создания индекса или начала повторного прогрева
+    // до его конца; вне прогрева null. Под блокировкой индекса
+    private Set<Long> changedBeforeWarmUp = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long lastId = 0L;
+        List<Item> batch;
+
+        synchronized (this) {
+            if (changedBeforeWarmUp == null) {
+                changedBeforeWarmUp = new HashSet<>();
+            }
+        }
+        try {
+            do {
+                batch = repository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(WARM_UP_BATCH_SIZE));
+                applyWarmUpBatch(batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.getLast().getId();
+                }
+            } while (batch.size() == WARM_UP_BATCH_SIZE);
+        } finally {
+            synchronized (this) {
+                changedBeforeWarmUp = null;
+            }
+        }
+
+        log.info("Item search index warmed up: {} items, {} tokens", itemTokens.size(), postings.size());
+    }
+
+    // Добавляет вещь в индекс или обновляет её слова. Недоступные вещи в поиск не попадают.
+    public synchronized void index(Item item) {
+        markChanged(item.getId());
+        add(item);
+    }
+
+    public synchronized void remove(Long itemId) {
+        markChanged(itemId);
+        removeTokens(itemId);
+    }
+
+    private synchronized void applyWarmUpBatch(List<Item> batch) {
+        for (Item item : batch) {
+            if (!changedBeforeWarmUp.contains(item.getId())) {
+                add(item);
+            }
+        }
+    }
+
+    private void markChanged(Long itemId) {
+        if (changedBeforeWarmUp != null) {
+            changedBeforeWarmUp.add(itemId);
+        }
+    }
+
+    private void add(Item item) {
+        removeTokens(item.getId());
+
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(item.getName()));
+        tokens.addAll(tokenize(item.getDescription()));
+
+        tokens.forEach(token -> postings
+                .computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet())
+                .add(item.getId()));
+        itemTokens.put(item.getId(), tokens);
+    }
+
+    private void removeTokens(Long itemId) {
+        Set<String> tokens = itemTokens.remove(itemId);
+        if (tokens == null) {
+            return;
+        }
+
+        tokens.forEach(token -> postings.computeIfPresent(token, (t, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    // Возвращает id вещей, у которых каждое слово запроса является началом какого-либо слова
+    // (короткое слово запроса - целым словом)
+    public Set<Long> search(String text) {
+        List<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return Set.of();
+        }
+
+        // начинаем с самого редкого слова, чтобы пересечение было как можно меньше
+        List<Set<Long>> matches = queryTokens.stream()
+                .distinct()
+                .map(this::findByPrefix)
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+
+        Set<Long> result = new HashSet<>(matches.getFirst());
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+
+    private Set<Long> findByPrefix(String prefix) {
+        if (prefix.length() < MIN_PREFIX_LENGTH) {
+            return postings.getOrDefault(prefix, Set.of());
+        }
+
+        Set<Long> ids = new HashSet<>();
+        postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .values()
+                .forEach(ids::addAll);
+        return ids;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
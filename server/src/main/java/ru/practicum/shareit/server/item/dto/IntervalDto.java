@@ -0,0 +1,12 @@
+package ru.practicum.shareit.server.item.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class IntervalDto {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
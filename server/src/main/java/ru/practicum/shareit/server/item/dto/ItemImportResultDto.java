@@ -0,0 +1,13 @@
+package ru.practicum.shareit.server.item.dto;
+
+import lombok.Data;
+
+// Результат одной строки POST /items/import; line - номер строки в загрузке, с 1
+@Data
+public class ItemImportResultDto {
+
+    private long line;
+    private ItemImportStatus status;
+    private Long itemId;
+    private String error;
+}
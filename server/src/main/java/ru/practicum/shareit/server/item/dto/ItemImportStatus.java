@@ -0,0 +1,7 @@
+package ru.practicum.shareit.server.item.dto;
+
+// Итог строки импорта: вещь создана или строка отклонена (причина - в error)
+public enum ItemImportStatus {
+    CREATED,
+    REJECTED
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.server.item.dto;
 
+import ru.practicum.shareit.server.booking.model.TimeInterval;
+import ru.practicum.shareit.server.item.dal.CommentWithAuthor;
 import ru.practicum.shareit.server.item.model.Comment;
 import ru.practicum.shareit.server.item.model.Item;
 
@@ -76,5 +78,52 @@ public class ItemMapper {
 
         return dto;
     }
-}
 
+    public static CommentResponseDto toCommentResponseDto(CommentWithAuthor comment) {
+        CommentResponseDto dto = new CommentResponseDto();
+
+        dto.setId(comment.getId());
+        dto.setText(comment.getText());
+        dto.setCreated(comment.getCreated());
+        dto.setAuthorName(comment.getAuthorName());
+
+        return dto;
+    }
+
+    public static IntervalDto toIntervalDto(TimeInterval interval) {
+        IntervalDto dto = new IntervalDto();
+
+        dto.setStart(interval.getStart());
+        dto.setEnd(interval.getEnd());
+
+        return dto;
+    }
+
+    public static ItemAvailabilityResponseDto toItemAvailabilityResponseDto(Long itemId,
+                                                                            LocalDateTime from,
+                                                                            LocalDateTime to,
+                                                                            List<TimeInterval> busy,
+                                                                            List<TimeInterval> free) {
+        ItemAvailabilityResponseDto dto = new ItemAvailabilityResponseDto();
+
+        dto.setItemId(itemId);
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setBusy(busy.stream().map(ItemMapper::toIntervalDto).toList());
+        dto.setFree(free.stream().map(ItemMapper::toIntervalDto).toList());
+
+        return dto;
+    }
+
+    public static ItemImportResultDto toItemImportResultDto(long line, Long itemId, String error) {
+
+        ItemImportResultDto dto = new ItemImportResultDto();
+
+        dto.setLine(line);
+        dto.setStatus(itemId != null ? ItemImportStatus.CREATED : ItemImportStatus.REJECTED);
+        dto.setItemId(itemId);
+        dto.setError(error);
+
+        return dto;
+    }
+}
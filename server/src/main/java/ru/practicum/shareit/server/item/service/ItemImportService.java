@@ -0,0 +1,183 @@
+package ru.practicum.shareit.server.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
+import ru.practicum.shareit.server.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.server.item.dto.ItemMapper;
+import ru.practicum.shareit.server.item.dto.ItemRequestDto;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.request.dal.RequestRepository;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Импорт вещей одного владельца из NDJSON: строка - ItemRequestDto, пустые строки пропускаются.
+// Строки обрабатываются порциями по shareit.item-import.chunk-size: запросы порции проверяются одним SELECT,
+// вещи сохраняются одной транзакцией saveAll (JDBC-пакетами). Результаты порции отдаются сразу,
+// так что в памяти не больше одной порции, сколько бы строк ни было в загрузке
+@Slf4j
+@Service
+public class ItemImportService {
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ItemRepository repository;
+    private final UserService userService;
+    private final RequestRepository requestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper mapper;
+    private final int chunkSize;
+
+    public ItemImportService(ItemRepository repository,
+                             UserService userService,
+                             RequestRepository requestRepository,
+                             ItemSearchIndex searchIndex,
+                             ApplicationEventPublisher events,
+                             ObjectMapper mapper,
+                             @Value("${shareit.item-import.chunk-size:500}") int chunkSize) {
+        this.repository = repository;
+        this.userService = userService;
+        this.requestRepository = requestRepository;
+        this.searchIndex = searchIndex;
+        this.events = events;
+        this.mapper = mapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public void importItems(Long ownerId, Stream<String> lines, Consumer<List<ItemImportResultDto>> results) {
+
+        userService.getUserById(ownerId); // владелец проверяется один раз на весь импорт
+
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        long created = 0;
+        Iterator<String> iterator = lines.iterator();
+        while (iterator.hasNext()) {
+            String text = iterator.next();
+            lineNumber++;
+            if (text.isBlank()) {
+                continue;
+            }
+            chunk.add(new ImportLine(lineNumber, text));
+            if (chunk.size() == chunkSize) {
+                created += importChunk(ownerId, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(ownerId, chunk, results);
+        }
+
+        log.info("Items import for owner id={}: {} of {} lines created", ownerId, created, lineNumber);
+    }
+
+    private int importChunk(Long ownerId, List<ImportLine> chunk, Consumer<List<ItemImportResultDto>> results) {
+
+        Map<Long, ItemRequestDto> valid = new LinkedHashMap<>();
+        Map<Long, String> errors = new HashMap<>();
+        for (ImportLine line : chunk) {
+            try {
+                ItemRequestDto dto = mapper.readValue(line.text(), ItemRequestDto.class);
+                String error = validate(dto);
+                if (error == null) {
+                    valid.put(line.number(), dto);
+                } else {
+                    errors.put(line.number(), error);
+                }
+            } catch (JsonProcessingException e) {
+                errors.put(line.number(), "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        Set<Long> requestIds = valid.values().stream()
+                .map(ItemRequestDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingRequestIds = requestIds.isEmpty() ? Set.of() : requestRepository.findExistingIds(requestIds);
+        valid.entrySet().removeIf(entry -> {
+            Long requestId = entry.getValue().getRequestId();
+            if (requestId == null || existingRequestIds.contains(requestId)) {
+                return false;
+            }
+            errors.put(entry.getKey(), "Request with id=" + requestId + " not found");
+            return true;
+        });
+
+        Map<Long, Long> itemIds = new HashMap<>();
+        if (!valid.isEmpty()) {
+            List<Item> items = new ArrayList<>(valid.size());
+            for (ItemRequestDto dto : valid.values()) {
+                Item item = ItemMapper.toItem(dto);
+                item.setOwner(ownerId);
+                items.add(item);
+            }
+
+            try {
+                // saveAll возвращает вещи в порядке переданных
+                List<Item> saved = repository.saveAll(items);
+                Iterator<Long> lineNumbers = valid.keySet().iterator();
+                for (Item item : saved) {
+                    itemIds.put(lineNumbers.next(), item.getId());
+                    searchIndex.index(item);
+                }
+                publishInvalidation(saved);
+            } catch (DataAccessException e) {
+                // транзакция порции откатилась целиком (например, запрос удалили после проверки)
+                log.warn("Items import chunk for owner id={} was rolled back: {}", ownerId, e.getMessage());
+                valid.keySet().forEach(number -> errors.put(number, "Chunk could not be saved, retry the line"));
+            }
+        }
+
+        results.accept(chunk.stream()
+                .map(line -> ItemMapper.toItemImportResultDto(line.number(), itemIds.get(line.number()),
+                        errors.get(line.number())))
+                .toList());
+        return itemIds.size();
+    }
+
+    // Те же правила, что у ItemRequestDto в gateway: одна неверная строка не должна сорвать INSERT всей порции
+    private static String validate(ItemRequestDto dto) {
+        if (dto == null) {
+            return "Line must be a JSON object";
+        }
+        if (dto.getName() == null || dto.getName().isBlank() || dto.getName().length() > MAX_TEXT_LENGTH) {
+            return "Name must not be blank or longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (dto.getDescription() == null || dto.getDescription().isBlank()
+                || dto.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "Description must not be blank or longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (dto.getAvailable() == null) {
+            return "Available must not be null";
+        }
+        return null;
+    }
+
+    private void publishInvalidation(List<Item> items) {
+        events.publishEvent(GatewayCacheInvalidation.items(items.stream().map(Item::getId).toArray(Long[]::new)));
+
+        Long[] requestIds = items.stream()
+                .map(Item::getRequest)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Long[]::new);
+        if (requestIds.length > 0) {
+            events.publishEvent(GatewayCacheInvalidation.requests(requestIds));
+        }
+    }
+
+    private record ImportLine(long number, String text) {
+    }
+}
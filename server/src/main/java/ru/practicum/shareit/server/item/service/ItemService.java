@@ -2,6 +2,8 @@ package ru.practicum.shareit.server.item.service;
 
 import ru.practicum.shareit.server.item.dto.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 public interface ItemService {
@@ -10,11 +12,17 @@ public interface ItemService {
 
     ItemResponseDto updateItem(Long itemId, ItemUpdateRequestDto itemDataToUpdate, Long userId);
 
-    ItemWithCommentsResponseDto getItemById(Long itemId, Long userId);
+    ItemWithCommentsResponseDto getItemById(Long itemId, Long userId, Integer commentsFrom, Integer commentsSize);
+
+    String getItemETag(Long itemId, Long userId);
 
     Collection<ItemWithCommentsResponseDto> getItemsByUser(Long userId);
 
     Collection<ItemResponseDto> searchItems(String searchString);
 
+    ItemAvailabilityResponseDto getItemAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to);
+
+    IntervalDto getNextFreeSlot(Long itemId, Long userId, LocalDateTime from, Duration duration);
+
     CommentResponseDto addComment(CommentRequestDto dto, Long itemId, Long userId);
 }
@@ -1,17 +1,29 @@
 package ru.practicum.shareit.server.item.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.server.booking.dal.BookingRepository;
+import ru.practicum.shareit.server.booking.dal.ItemBookingDates;
 import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.TimeInterval;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
+import ru.practicum.shareit.server.config.CacheConfig;
 import ru.practicum.shareit.server.exception.ForbiddenException;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dal.CommentRepository;
 import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
 import ru.practicum.shareit.server.item.dto.*;
 import ru.practicum.shareit.server.item.model.Comment;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
 import ru.practicum.shareit.server.request.dal.RequestRepository;
 import ru.practicum.shareit.server.request.model.Request;
 import ru.practicum.shareit.server.user.dal.UserRepository;
@@ -19,8 +31,10 @@ import ru.practicum.shareit.server.user.dto.UserMapper;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 // Логирование ошибок в ErrorResponse, логирование запросов - org.zalando
@@ -33,7 +47,11 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIndex;
     private final RequestRepository requestRepository;
+    private final ItemSearchIndex searchIndex;
+    private final ApplicationEventPublisher events;
+    private final ResourceVersions versions;
 
     @Override
     public ItemResponseDto createItem(ItemRequestDto newItemDto, Long ownerId) {
@@ -50,15 +68,22 @@ public class ItemServiceImpl implements ItemService {
         Item newItem = ItemMapper.toItem(newItemDto);
         newItem.setOwner(ownerId);
 
-        return ItemMapper.toItemResponseDto(repository.save(newItem));
+        Item savedItem = repository.save(newItem);
+        searchIndex.index(savedItem);
+        publishInvalidation(savedItem);
+
+        return ItemMapper.toItemResponseDto(savedItem);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, key = "#itemId")
     public ItemResponseDto updateItem(Long itemId, ItemUpdateRequestDto itemDataToUpdate, Long userId) {
 
         userService.getUserById(userId); // проверка, а существует ли user
 
-        Item existingItem = checkAndGetItemById(itemId);
+        // Не из кэша: изменять закэшированный экземпляр нельзя
+        Item existingItem = repository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item with id=" + itemId + " not found"));
 
         // Редактировать вещь может только её владелец.
         if (!existingItem.getOwner().equals(userId)) {
@@ -77,11 +102,21 @@ public class ItemServiceImpl implements ItemService {
             existingItem.setAvailable(itemDataToUpdate.getAvailable());
         }
 
-        return ItemMapper.toItemResponseDto(repository.save(existingItem));
+        Item savedItem = repository.save(existingItem);
+        searchIndex.index(savedItem);
+        publishInvalidation(savedItem);
+        // вещь входит в ответы о её бронированиях
+        events.publishEvent(GatewayCacheInvalidation.bookings());
+
+        return ItemMapper.toItemResponseDto(savedItem);
     }
 
     @Override
-    public ItemWithCommentsResponseDto getItemById(Long itemId, Long userId) {
+    public ItemWithCommentsResponseDto getItemById(Long itemId, Long userId, Integer commentsFrom, Integer commentsSize) {
+
+        if (commentsFrom == null || commentsFrom < 0 || commentsSize == null || commentsSize < 1) {
+            throw new ValidationException("Invalid comments page: from=" + commentsFrom + ", size=" + commentsSize);
+        }
 
         Optional<User> maybeUser = userRepository.getUserById(userId);
         if (maybeUser.isEmpty()) {
@@ -110,12 +145,30 @@ public class ItemServiceImpl implements ItemService {
             }
         }
 
-        // Получаем комментарии с авторами
-        List<CommentResponseDto> comments = getCommentsWithAuthors(item);
+        // Получаем страницу комментариев с авторами
+        List<CommentResponseDto> comments = getCommentsWithAuthors(item, commentsFrom, commentsSize);
 
         return ItemMapper.toItemWithCommentsResponseDto(item, lastBookingDate, nextBookingDate, comments);
     }
 
+    // Тег считается после тех же проверок пользователя и вещи, что и ответ: 304 не подтверждает
+    // несуществующему пользователю или вещи. Владелец видит даты бронирований, остальные - нет, поэтому
+    // признак владельца входит в тег. Даты зависят от текущего времени: к тегу владельца добавляется
+    // число уже наступивших границ бронирований вещи
+    @Override
+    public String getItemETag(Long itemId, Long userId) {
+        if (userRepository.getUserById(userId).isEmpty()) {
+            throw new NotFoundException("User with id=" + userId + " not found");
+        }
+        Item item = checkAndGetItemById(itemId);
+
+        if (!item.getOwner().equals(userId)) {
+            return versions.resourceTag(GatewayCacheRegion.ITEMS, itemId, "viewer");
+        }
+        return versions.resourceTag(GatewayCacheRegion.ITEMS, itemId, "owner",
+                bookingRepository.countPassedBoundaries(itemId, LocalDateTime.now()));
+    }
+
     private Booking getLatestPastBooking(Item item) {
         return bookingRepository
                 .findTopByItemIdAndEndBeforeOrderByEndDesc(item.getId(), LocalDateTime.now())
@@ -128,23 +181,15 @@ public class ItemServiceImpl implements ItemService {
                 .orElse(null);
     }
 
-    private List<CommentResponseDto> getCommentsWithAuthors(Item item) {
+    // Один запрос на страницу комментариев: имена авторов приходят join-ом, а не отдельным findById на каждый
+    private List<CommentResponseDto> getCommentsWithAuthors(Item item, Integer from, Integer size) {
         return commentRepository
-                .findAllByItemId(item.getId())
+                .findCommentsWithAuthorByItemId(item.getId(), new OffsetPageRequest(from, size))
                 .stream()
-                .map(comment -> {
-                    String authorName = getUserFullName(comment.getAuthorId());
-                    return ItemMapper.toCommentResponseDto(comment, authorName);
-                })
+                .map(ItemMapper::toCommentResponseDto)
                 .toList();
     }
 
-    private String getUserFullName(Long userId) {
-        return userRepository.findById(userId)
-                .map(User::getName)
-                .orElse("Unknown User");
-    }
-
 
     @Override
     public Collection<ItemWithCommentsResponseDto> getItemsByUser(Long userId) {
@@ -153,13 +198,20 @@ public class ItemServiceImpl implements ItemService {
         // Получаем все вещи владельца
         Collection<Item> itemsByOwner = repository.findByOwner(userId);
 
+        if (itemsByOwner.isEmpty()) {
+            return List.of();
+        }
+
         // Делаем список id вещей владельца
         List<Long> itemIds = itemsByOwner.stream()
                 .map(Item::getId)
                 .toList();
 
-        // Получаем одобренные бронирования, отсортированные по убыванию даты (последние сверху)
-        List<Booking> bookings = bookingRepository.findApprovedBookingsByItemIdsOrderByDesc(itemIds);
+        // Даты последнего и следующего одобренного бронирования считает БД, по строке на вещь
+        Map<Long, ItemBookingDates> bookingDates = bookingRepository
+                .findApprovedBookingDatesByItemIds(itemIds, LocalDateTime.now())
+                .stream()
+                .collect(Collectors.toMap(ItemBookingDates::getItemId, Function.identity()));
 
         // Получаем комментарии, отсортированные по убыванию даты создания
         List<Comment> comments = commentRepository.findAllCommentsByItemIdsOrderByDesc(itemIds);
@@ -174,10 +226,6 @@ public class ItemServiceImpl implements ItemService {
         Map<Long, String> userNamesMap = users.stream()
                 .collect(Collectors.toMap(User::getId, User::getName));
 
-        // Мапа: itemId -> список бронирований
-        Map<Long, List<Booking>> itemsBooking = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
-
         // Мапа: itemId -> список комментариев
         Map<Long, List<Comment>> itemsComments = comments.stream()
                 .collect(Collectors.groupingBy(Comment::getItemId));
@@ -185,34 +233,11 @@ public class ItemServiceImpl implements ItemService {
         // Формируем финальный результат
         return itemsByOwner.stream()
                 .map(item -> {
-                    List<Booking> itemBookings = itemsBooking.getOrDefault(item.getId(), Collections.emptyList());
+                    ItemBookingDates dates = bookingDates.get(item.getId());
                     List<Comment> itemComments = itemsComments.getOrDefault(item.getId(), Collections.emptyList());
 
-                    LocalDateTime lastBooking = null;
-                    LocalDateTime nextBooking = null;
-
-                    if (!itemBookings.isEmpty()) {
-                        LocalDateTime now = LocalDateTime.now();
-
-                        // Берем будущие и прошлые бронирования
-                        List<Booking> futureBookings = itemBookings.stream()
-                                .filter(b -> b.getStart().isAfter(now))
-                                .sorted(Comparator.comparing(Booking::getStart))
-                                .toList();
-
-                        List<Booking> pastBookings = itemBookings.stream()
-                                .filter(b -> b.getEnd().isBefore(now))
-                                .sorted(Comparator.comparing(Booking::getEnd).reversed())
-                                .toList();
-
-                        if (!pastBookings.isEmpty()) {
-                            lastBooking = pastBookings.getFirst().getEnd();
-                        }
-
-                        if (!futureBookings.isEmpty()) {
-                            nextBooking = futureBookings.getFirst().getStart();
-                        }
-                    }
+                    LocalDateTime lastBooking = dates == null ? null : dates.getLastBooking();
+                    LocalDateTime nextBooking = dates == null ? null : dates.getNextBooking();
 
                     // Преобразуем комментарии в DTO с именами авторов
                     List<CommentResponseDto> commentsDto = itemComments.stream()
@@ -232,12 +257,91 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public Collection<ItemResponseDto> searchItems(String searchString) {
 
+        // id подбираются по индексу, из БД вещи читаются только по первичному ключу
+        Set<Long> foundIds = searchIndex.search(searchString);
+        if (foundIds.isEmpty()) {
+            return Set.of();
+        }
 
-        return repository.searchItems(searchString).stream()
+        return repository.findAllById(foundIds).stream()
+                .filter(Item::getAvailable)
                 .map(ItemMapper::toItemResponseDto)
                 .collect(Collectors.toSet());
     }
 
+    @Override
+    public ItemAvailabilityResponseDto getItemAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to) {
+
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Parameter from must be before to");
+        }
+
+        if (userRepository.getUserById(userId).isEmpty()) {
+            throw new NotFoundException("User with id=" + userId + " not found");
+        }
+
+        checkAndGetItemById(itemId);
+
+        // Занятость - одно чтение диапазона бронирований вещи из БД, свободные интервалы - промежутки между занятыми
+        List<TimeInterval> busy = mergeBusy(bookingRepository.findIntervalsBetween(itemId,
+                BookingIntervalIndex.OCCUPYING_STATUSES, from, to), from, to);
+        List<TimeInterval> free = new ArrayList<>();
+
+        LocalDateTime freeStart = from;
+        for (TimeInterval interval : busy) {
+            if (freeStart.isBefore(interval.getStart())) {
+                free.add(new TimeInterval(freeStart, interval.getStart()));
+            }
+            freeStart = interval.getEnd();
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new TimeInterval(freeStart, to));
+        }
+
+        return ItemMapper.toItemAvailabilityResponseDto(itemId, from, to, busy, free);
+    }
+
+    @Override
+    public IntervalDto getNextFreeSlot(Long itemId, Long userId, LocalDateTime from, Duration duration) {
+
+        if (duration.isNegative() || duration.isZero()) {
+            throw new ValidationException("Parameter duration must be positive");
+        }
+
+        if (userRepository.getUserById(userId).isEmpty()) {
+            throw new NotFoundException("User with id=" + userId + " not found");
+        }
+
+        checkAndGetItemById(itemId);
+
+        // Расписание вещи в BookingIntervalIndex держит только незакончившиеся брони: окно ищется не раньше текущего момента
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = bookingIndex.nextFreeSlot(itemId, from.isBefore(now) ? now : from, duration);
+
+        return ItemMapper.toIntervalDto(new TimeInterval(start, start.plus(duration)));
+    }
+
+    // Соседние и пересекающиеся брони (отсортированные по началу) склеиваются, края обрезаются по [from, to)
+    private static List<TimeInterval> mergeBusy(List<TimeInterval> bookings, LocalDateTime from, LocalDateTime to) {
+        List<TimeInterval> busy = new ArrayList<>();
+
+        TimeInterval current = null;
+        for (TimeInterval booking : bookings) {
+            LocalDateTime start = booking.getStart().isBefore(from) ? from : booking.getStart();
+            LocalDateTime end = booking.getEnd().isAfter(to) ? to : booking.getEnd();
+
+            if (current != null && !start.isAfter(current.getEnd())) {
+                if (end.isAfter(current.getEnd())) {
+                    current.setEnd(end);
+                }
+            } else {
+                current = new TimeInterval(start, end);
+                busy.add(current);
+            }
+        }
+        return busy;
+    }
+
     @Override
     public CommentResponseDto addComment(CommentRequestDto dto, Long itemId, Long userId) {
 
@@ -250,9 +354,8 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("Can't comment without booking ends");
         }
 
-        if (bookingRepository.findPastBookings(user).stream()
-                .filter(booking -> booking.getItem().getId().equals(itemId))
-                .findFirst().isEmpty()) {
+        if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                userId, itemId, BookingStatus.APPROVED, LocalDateTime.now())) {
             throw new ValidationException("Only user who booked item can add comment");
         }
 
@@ -263,12 +366,20 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         commentRepository.save(comment);
-
+        events.publishEvent(GatewayCacheInvalidation.items(itemId));
 
         return ItemMapper.toCommentResponseDto(comment, user.getName());
     }
 
 
+    // Вещь попадает в ответы gateway о ней самой, в поиск и в запрос, на который она создана
+    private void publishInvalidation(Item item) {
+        events.publishEvent(GatewayCacheInvalidation.items(item.getId()));
+        if (item.getRequest() != null) {
+            events.publishEvent(GatewayCacheInvalidation.requests(item.getRequest()));
+        }
+    }
+
     private Item checkAndGetItemById(Long itemId) {
 
         Optional<Item> maybeItem = repository.getItemById(itemId);
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.server.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Страница выборки и курсор следующей страницы (null, если страница последняя)
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    // Если страница заполнена целиком, курсор строится по её последнему элементу
+    public static <T> KeysetPage<T> of(List<T> content, int size, Function<T, String> cursorOf) {
+        String nextCursor = content.size() < size ? null : cursorOf.apply(content.getLast());
+        return new KeysetPage<>(content, nextCursor);
+    }
+
+    // Тело ответа остаётся массивом, курсор следующей страницы передаётся заголовком
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(content);
+    }
+}
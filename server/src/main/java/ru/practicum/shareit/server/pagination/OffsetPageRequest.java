@@ -0,0 +1,49 @@
+package ru.practicum.shareit.server.pagination;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.data.domain.AbstractPageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+// Страница по смещению from, а не по номеру: PageRequest.of(from / size, size) при from, не кратном size,
+// вернул бы окно с начала "своей" страницы. Spring Data берёт первую строку из getOffset()
+@EqualsAndHashCode(callSuper = true)
+public class OffsetPageRequest extends AbstractPageRequest {
+
+    private final long offset;
+
+    public OffsetPageRequest(long offset, int size) {
+        super((int) (offset / size), size);
+        this.offset = offset;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetPageRequest(offset + getPageSize(), getPageSize());
+    }
+
+    @Override
+    public Pageable previous() {
+        return offset < getPageSize() ? first() : new OffsetPageRequest(offset - getPageSize(), getPageSize());
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetPageRequest(0, getPageSize());
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetPageRequest((long) pageNumber * getPageSize(), getPageSize());
+    }
+}
@@ -1,19 +1,24 @@
 package ru.practicum.shareit.server.request;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.server.request.dto.RequestRequestDto;
 import ru.practicum.shareit.server.request.dto.RequestResponseDto;
 import ru.practicum.shareit.server.request.dto.RequestWithItemsResponseDto;
 import ru.practicum.shareit.server.request.service.RequestService;
 
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/requests")
 @AllArgsConstructor
 public class RequestController {
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
     private final RequestService requestService;
 
     @PostMapping
@@ -29,27 +34,43 @@ public class RequestController {
     @GetMapping
     public Collection<RequestWithItemsResponseDto> getUserRequests(
             @RequestHeader("X-Sharer-User-Id")
-            Long userId) {
-
+            Long userId,
+            WebRequest request) {
 
+        // Ответы о запросах меняются только вместе с версией группы REQUESTS: 304 без чтения запросов и вещей
+        if (request.checkNotModified(requestService.getRequestsETag(userId))) {
+            return null;
+        }
         return requestService.getUserRequests(userId);
     }
 
 
     @GetMapping("/all")
-    public Collection<RequestWithItemsResponseDto> getOtherUsersRequests(
+    public ResponseEntity<List<RequestWithItemsResponseDto>> getOtherUsersRequests(
             @RequestHeader("X-Sharer-User-Id")
-            Long userId) {
-
-        return requestService.getOtherUsersRequests(userId);
+            Long userId,
+            @RequestParam(required = false)
+            String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE)
+            Integer size,
+            WebRequest request) {
+
+        if (request.checkNotModified(requestService.getRequestsETag(userId))) {
+            return null;
+        }
+        return requestService.getOtherUsersRequests(userId, cursor, size).toResponseEntity();
 
     }
 
     @GetMapping("/{requestId}")
     public RequestWithItemsResponseDto getRequestById(
             @PathVariable
-            Long requestId) {
+            Long requestId,
+            WebRequest request) {
 
+        if (request.checkNotModified(requestService.getRequestETag(requestId))) {
+            return null;
+        }
         return requestService.getRequestById(requestId);
 
     }
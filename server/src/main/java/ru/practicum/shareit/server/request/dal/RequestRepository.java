@@ -1,18 +1,36 @@
 package ru.practicum.shareit.server.request.dal;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.request.model.Request;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
     Collection<Request> findAllByRequestorOrderByCreated(Long requestor);
 
     Collection<Item> findAllByRequestorIn(Collection<Long> requestors);
 
-    Collection<Request> findAllByRequestorIsNot(Long requestor);
+    // Страница чужих запросов в порядке (created DESC, id DESC), строго после курсора
+    @Query("SELECT r FROM Request r " +
+            "WHERE r.requestor <> :requestor " +
+            "AND (r.created < :cursorCreated OR (r.created = :cursorCreated AND r.id < :cursorId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<Request> findOtherUsersRequests(@Param("requestor") Long requestor,
+                                         @Param("cursorCreated") LocalDateTime cursorCreated,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable page);
 
     Optional<Request> getRequestById(Long id);
+
+    // Какие из запросов существуют - одним запросом на порцию импортируемых вещей
+    @Query("SELECT r.id FROM Request r WHERE r.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.request.service;
 
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.request.dto.RequestRequestDto;
 import ru.practicum.shareit.server.request.dto.RequestResponseDto;
 import ru.practicum.shareit.server.request.dto.RequestWithItemsResponseDto;
@@ -13,7 +14,11 @@ public interface RequestService {
 
     Collection<RequestWithItemsResponseDto> getUserRequests(Long userId);
 
-    Collection<RequestWithItemsResponseDto> getOtherUsersRequests(Long userId);
+    KeysetPage<RequestWithItemsResponseDto> getOtherUsersRequests(Long userId, String cursor, Integer size);
 
     RequestWithItemsResponseDto getRequestById(Long requestId);
+
+    String getRequestsETag(Long userId);
+
+    String getRequestETag(Long requestId);
 }
@@ -1,12 +1,20 @@
 package ru.practicum.shareit.server.request.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
 import ru.practicum.shareit.server.exception.NotFoundException;
+import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dal.ItemRepository;
 import ru.practicum.shareit.server.item.dto.ItemInRequestResponseDto;
 import ru.practicum.shareit.server.item.dto.ItemMapper;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.request.dal.RequestRepository;
 import ru.practicum.shareit.server.request.dto.RequestMapper;
 import ru.practicum.shareit.server.request.dto.RequestRequestDto;
@@ -25,6 +33,8 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
+    private final ResourceVersions versions;
 
     @Override
     public RequestResponseDto createRequest(RequestRequestDto newRequestDto, Long creatorId) {
@@ -34,7 +44,10 @@ public class RequestServiceImpl implements RequestService {
 
         Request newRequest = RequestMapper.toRequest(newRequestDto, creatorId);
 
-        return RequestMapper.toRequestResponseDto(requestRepository.save(newRequest));
+        Request savedRequest = requestRepository.save(newRequest);
+        events.publishEvent(GatewayCacheInvalidation.requests(savedRequest.getId()));
+
+        return RequestMapper.toRequestResponseDto(savedRequest);
     }
 
 
@@ -52,15 +65,22 @@ public class RequestServiceImpl implements RequestService {
 
 
     @Override
-    public Collection<RequestWithItemsResponseDto> getOtherUsersRequests(Long userId) {
+    public KeysetPage<RequestWithItemsResponseDto> getOtherUsersRequests(Long userId, String cursor, Integer size) {
+
+        if (size == null || size < 1) {
+            throw new ValidationException("Invalid size=" + size);
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
 
         // проверка пользователя
         checkUser(userId);
 
-        // получаем все запросы пользователей кроме того, кто запросил
-        Collection<Request> requests = requestRepository.findAllByRequestorIsNot(userId);
+        // страница запросов других пользователей, от новых к старым
+        List<Request> requests = requestRepository.findOtherUsersRequests(
+                userId, after.getPosition(), after.getId(), PageRequest.of(0, size));
 
-        return getRequestWithItemsResponseDtos(requests);
+        return KeysetPage.of(getRequestWithItemsResponseDtos(requests), size,
+                last -> KeysetCursor.encode(last.getCreated(), last.getId()));
     }
 
     @Override
@@ -82,6 +102,27 @@ public class RequestServiceImpl implements RequestService {
 
     }
 
+    // Списки запросов - свои и чужие - у каждого пользователя свои: пользователь входит в тег
+    @Override
+    public String getRequestsETag(Long userId) {
+
+        // проверка пользователя
+        checkUser(userId);
+
+        return versions.listTag(GatewayCacheRegion.REQUESTS, userId);
+    }
+
+    @Override
+    public String getRequestETag(Long requestId) {
+
+        // проверка запроса
+        if (!requestRepository.existsById(requestId)) {
+            throw new NotFoundException("Request with id=" + requestId + " not found");
+        }
+
+        return versions.resourceTag(GatewayCacheRegion.REQUESTS, requestId);
+    }
+
     private void checkUser(Long userId) {
 
         if (userRepository.getUserById(userId).isEmpty()) {
@@ -89,7 +130,12 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
-    private Collection<RequestWithItemsResponseDto> getRequestWithItemsResponseDtos(Collection<Request> requests) {
+    // Порядок запросов сохраняется, вещи подгружаются только для переданных запросов
+    private List<RequestWithItemsResponseDto> getRequestWithItemsResponseDtos(Collection<Request> requests) {
+
+        if (requests.isEmpty()) {
+            return List.of();
+        }
 
         // Для каждого запроса указаны описание, дата и время создания,
         // а также список ответов в формате:
@@ -113,7 +159,7 @@ public class RequestServiceImpl implements RequestService {
                 .collect(Collectors.groupingBy(Item::getRequest));
 
         // формируем результат
-        Collection<RequestWithItemsResponseDto> result = requests.stream()
+        return requests.stream()
                 .map(request -> {
 
                     // подбираем набор вещей
@@ -133,7 +179,6 @@ public class RequestServiceImpl implements RequestService {
                     return RequestMapper.toRequestWithItemsResponseDto(request, itemsDto);
 
                 })
-                .collect(Collectors.toSet());
-        return result;
+                .toList();
     }
 }
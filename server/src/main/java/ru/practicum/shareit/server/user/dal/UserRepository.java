@@ -1,7 +1,9 @@
 package ru.practicum.shareit.server.user.dal;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.server.config.CacheConfig;
 import ru.practicum.shareit.server.user.model.User;
 
 import java.util.List;
@@ -10,6 +12,9 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Проверка X-Sharer-User-Id есть почти в каждом запросе, поэтому пользователь читается через кэш.
+    // Отсутствующий пользователь не кэшируется. Сбрасывается в UserServiceImpl при изменении и удалении.
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, unless = "#result == null")
     Optional<User> getUserById(Long userId);
 
     Optional<User> getUserByEmail(String email);
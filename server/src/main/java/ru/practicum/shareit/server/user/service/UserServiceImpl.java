@@ -1,7 +1,13 @@
 package ru.practicum.shareit.server.user.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.config.CacheConfig;
 import ru.practicum.shareit.server.exception.ConflictException;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.user.dal.UserRepository;
@@ -19,6 +25,8 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final ApplicationEventPublisher events;
+    private final BookingIntervalIndex intervalIndex;
 
     @Override
     public UserResponseDto createUser(UserRequestDto newUser) {
@@ -38,6 +46,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId")
     public UserResponseDto updateUser(UserUpdateRequestDto userDataToUpdate, Long userId) {
 
         User existingUser = checkAndGetUserById(userId);
@@ -57,12 +66,27 @@ public class UserServiceImpl implements UserService {
 
         repository.save(user);
 
+        // имя пользователя показывается как автор в комментариях к вещам и как автор бронирования
+        events.publishEvent(GatewayCacheInvalidation.items());
+        events.publishEvent(GatewayCacheInvalidation.bookings());
+
         return UserMapper.toUserResponseDto(user);
     }
 
+    // Вместе с пользователем каскадно удаляются его вещи и запросы, поэтому кэши вещей, запросов и бронирований сбрасываются целиком
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, allEntries = true)
+    })
     public void deleteUser(Long userId) {
         repository.deleteById(userId);
+        // бронирования пользователя и бронирования его вещей удалены каскадом в БД, их интервалы в индексе больше не заняты
+        intervalIndex.clear();
+
+        events.publishEvent(GatewayCacheInvalidation.items());
+        events.publishEvent(GatewayCacheInvalidation.requests());
+        events.publishEvent(GatewayCacheInvalidation.bookings());
     }
 
     private User checkAndGetUserById(Long id) {
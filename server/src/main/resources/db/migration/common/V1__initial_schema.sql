@@ -1,24 +1,28 @@
--- Удаление таблиц с каскадом
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS requests CASCADE;
-DROP TABLE IF EXISTS users CASCADE;
-
+-- Исходная схема, прежде создававшаяся schema.sql при каждом запуске.
+-- Базу со схемой из schema.sql за эту версию не принимают: её схему удаляют, и V1 создаёт её заново
+-- (см. spring.flyway.* в application.properties)
 
+-- Идентификаторы выдаёт Hibernate из последовательностей блоками по 50 (pooled-lo, allocationSize у сущностей):
+-- ключ известен до INSERT, и вставки отправляются JDBC-пакетами. Шаг последовательностей равен allocationSize.
+-- После вставки строк с явными id в обход Hibernate последовательность сдвигают за них (ALTER SEQUENCE ... RESTART WITH)
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_seq START WITH 1 INCREMENT BY 50;
 
 -- Создание таблицы пользователей
-CREATE TABLE IF NOT EXISTS users
+CREATE TABLE users
 (
-    id    BIGSERIAL PRIMARY KEY,
+    id    BIGINT PRIMARY KEY,
     name  VARCHAR(255) NOT NULL,
     email VARCHAR(255) NOT NULL UNIQUE
 );
 
 -- Создание таблицы запросов
-CREATE TABLE IF NOT EXISTS requests
+CREATE TABLE requests
 (
-    id           BIGSERIAL PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     description  TEXT   NOT NULL,
     requestor_id BIGINT NOT NULL,
     created      TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
@@ -27,9 +31,9 @@ CREATE TABLE IF NOT EXISTS requests
 );
 
 -- Создание таблицы предметов
-CREATE TABLE IF NOT EXISTS items
+CREATE TABLE items
 (
-    id           BIGSERIAL PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     name         VARCHAR(255) NOT NULL,
     description  TEXT         NOT NULL,
     is_available BOOLEAN      NOT NULL DEFAULT TRUE,
@@ -42,9 +46,9 @@ CREATE TABLE IF NOT EXISTS items
 );
 
 -- Создание таблицы бронирований
-CREATE TABLE IF NOT EXISTS bookings
+CREATE TABLE bookings
 (
-    id         BIGSERIAL PRIMARY KEY,
+    id         BIGINT PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id    BIGINT                      NOT NULL,
@@ -56,10 +60,13 @@ CREATE TABLE IF NOT EXISTS bookings
         REFERENCES users (id) ON DELETE CASCADE
 );
 
+-- Расписание вещи (BookingIntervalIndex, календарь занятости) читается диапазоном по этому индексу
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date);
+
 -- Создание таблицы комментариев
-CREATE TABLE IF NOT EXISTS comments
+CREATE TABLE comments
 (
-    id        BIGSERIAL PRIMARY KEY,
+    id        BIGINT PRIMARY KEY,
     text      TEXT   NOT NULL,
     item_id   BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
@@ -68,6 +75,3 @@ CREATE TABLE IF NOT EXISTS comments
     FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE
 
 );
-
-
-
@@ -0,0 +1,17 @@
+-- Те же индексы, что в db/migration/postgresql/V2__query_indexes.sql. Частичных индексов в H2 нет:
+-- статус становится столбцом после item_id (один индекс на APPROVED-даты и очередь WAITING),
+-- request_id индексируется целиком
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+
+CREATE INDEX idx_bookings_item_end ON bookings (item_id, end_date);
+
+CREATE INDEX idx_bookings_item_approved_dates ON bookings (item_id, status, start_date, end_date);
+
+CREATE INDEX idx_comments_item_created ON comments (item_id, created DESC, id DESC);
+
+CREATE INDEX idx_items_owner ON items (owner_id);
+CREATE INDEX idx_items_request ON items (request_id);
+
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created);
+CREATE INDEX idx_requests_created ON requests (created DESC, id DESC);
@@ -0,0 +1,29 @@
+-- Индексы под запросы репозиториев (QueryPlanTest проверяет, что ни один запрос не читает таблицу целиком).
+-- Списки с keyset-пагинацией идут по индексу в порядке выдачи (start_date DESC, id DESC) и останавливаются
+-- на размере страницы. Вариант для H2 - db/migration/h2, без частичных индексов
+
+-- BookingRepository: бронирования арендатора, все и по статусу (WAITING, REJECTED, APPROVED для CURRENT/PAST/FUTURE)
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+
+-- Последнее прошедшее бронирование вещи (findTopByItemIdAndEndBeforeOrderByEndDesc);
+-- следующее и расписание вещи идут по idx_bookings_item_start из V1
+CREATE INDEX idx_bookings_item_end ON bookings (item_id, end_date);
+
+-- Даты последнего и следующего APPROVED бронирования по списку вещей: только подтверждённые,
+-- агрегат считается по индексу без чтения таблицы
+CREATE INDEX idx_bookings_item_approved_dates ON bookings (item_id, start_date, end_date) WHERE status = 'APPROVED';
+
+-- Очередь ожидающих решения бронирований вещей владельца (state=WAITING)
+CREATE INDEX idx_bookings_item_waiting ON bookings (item_id, start_date DESC, id DESC) WHERE status = 'WAITING';
+
+-- CommentRepository: страница комментариев вещи и комментарии списка вещей, новые сверху
+CREATE INDEX idx_comments_item_created ON comments (item_id, created DESC, id DESC);
+
+-- ItemRepository: вещи владельца (и бронирования вещей владельца через items) и вещи, созданные по запросам
+CREATE INDEX idx_items_owner ON items (owner_id);
+CREATE INDEX idx_items_request ON items (request_id) WHERE request_id IS NOT NULL;
+
+-- RequestRepository: свои запросы по дате и лента чужих запросов (created DESC, id DESC)
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created);
+CREATE INDEX idx_requests_created ON requests (created DESC, id DESC);
@@ -0,0 +1,279 @@
+package ru.practicum.shareit.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.server.booking.dal.BookingRepository;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.item.dal.CommentRepository;
+import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.request.dal.RequestRepository;
+import ru.practicum.shareit.server.user.dal.UserRepository;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Планы всех запросов репозиториев на PostgreSQL со схемой из миграций Flyway: ни один не должен читать таблицу целиком.
+// SQL каждого запроса перехватывается у Hibernate и разбирается через EXPLAIN (GENERIC_PLAN) - план для любых параметров.
+// С enable_seqscan=off Seq Scan остаётся в плане только там, где подходящего индекса нет вовсе,
+// так что на небольшом наборе данных проверка та же, что на большом.
+// Без Docker тест пропускается только локально: в CI (задана переменная окружения CI, как в GitHub Actions)
+// он запускается всегда и без Docker падает, а не проходит молча.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@EnabledIf("dockerAvailableOrCi")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+
+    private static final int USERS = 100;
+    private static final int OWNERS = 20;
+    private static final int REQUESTS = 200;
+    private static final int ITEMS = 1000;
+    private static final int BOOKINGS_PER_ITEM = 5;
+    private static final int COMMENTS_PER_ITEM = 2;
+
+    private static final LocalDateTime FIRST = KeysetCursor.decode(null).getPosition();
+    private static final Long FIRST_ID = KeysetCursor.decode(null).getId();
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1")
+            .withCommand("postgres", "-c", "enable_seqscan=off");
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    static boolean dockerAvailableOrCi() {
+        return System.getenv("CI") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @TestConfiguration
+    static class StatementRecording {
+
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            StatementInspector inspector = sql -> {
+                statements.add(sql);
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesDoNotScanTables() {
+        seed();
+
+        User booker = userRepository.findById((long) USERS).orElseThrow();
+        long owner = 1L;
+        long item = 1L;
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findBookingsByBookerAndStatus", () -> bookingRepository.findBookingsByBookerAndStatus(
+                booker, BookingStatus.WAITING, FIRST, FIRST_ID, PAGE));
+        queries.put("findBookingsByBooker", () -> bookingRepository.findBookingsByBooker(booker, FIRST, FIRST_ID, PAGE));
+        queries.put("findCurrentBookings", () -> bookingRepository.findCurrentBookings(booker, FIRST, FIRST_ID, PAGE));
+        queries.put("existsByBookerIdAndItemIdAndStatusAndEndBefore",
+                () -> bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                        booker.getId(), item, BookingStatus.APPROVED, now));
+        queries.put("findPastBookings(page)", () -> bookingRepository.findPastBookings(booker, FIRST, FIRST_ID, PAGE));
+        queries.put("findFutureBookings", () -> bookingRepository.findFutureBookings(booker, FIRST, FIRST_ID, PAGE));
+        queries.put("findCurrentBookingsByOwner", () -> bookingRepository.findCurrentBookingsByOwner(
+                owner, FIRST, FIRST_ID, PAGE));
+        queries.put("findPastBookingsByOwner", () -> bookingRepository.findPastBookingsByOwner(owner, FIRST, FIRST_ID, PAGE));
+        queries.put("findFutureBookingsByOwner", () -> bookingRepository.findFutureBookingsByOwner(
+                owner, FIRST, FIRST_ID, PAGE));
+        queries.put("findBookingsByOwnerAndStatus", () -> bookingRepository.findBookingsByOwnerAndStatus(
+                owner, BookingStatus.WAITING, FIRST, FIRST_ID, PAGE));
+        queries.put("findAllBookingsByOwner", () -> bookingRepository.findAllBookingsByOwner(owner, FIRST, FIRST_ID, PAGE));
+        queries.put("findTopByItemIdAndStartAfterOrderByStartAsc",
+                () -> bookingRepository.findTopByItemIdAndStartAfterOrderByStartAsc(item, now));
+        queries.put("findTopByItemIdAndEndBeforeOrderByEndDesc",
+                () -> bookingRepository.findTopByItemIdAndEndBeforeOrderByEndDesc(item, now));
+        queries.put("countPassedBoundaries", () -> bookingRepository.countPassedBoundaries(item, now));
+        queries.put("findApprovedBookingDatesByItemIds",
+                () -> bookingRepository.findApprovedBookingDatesByItemIds(List.of(1L, 2L, 3L), now));
+        queries.put("compareAndSetStatus",
+                () -> bookingRepository.compareAndSetStatus(1L, BookingStatus.WAITING, BookingStatus.WAITING));
+        queries.put("compareAndSetStatuses", () -> bookingRepository.compareAndSetStatuses(
+                List.of(1L, 2L), BookingStatus.WAITING, BookingStatus.WAITING));
+        queries.put("findDecisionTargets", () -> bookingRepository.findDecisionTargets(List.of(1L, 2L)));
+        queries.put("findIntervalsBetween", () -> bookingRepository.findIntervalsBetween(
+                item, List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now, now.plusMonths(1)));
+        queries.put("findAllByItemIdAndStatusInAndEndAfter", () -> bookingRepository.findAllByItemIdAndStatusInAndEndAfter(
+                item, List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now));
+
+        queries.put("getItemById", () -> itemRepository.getItemById(item));
+        queries.put("findByOwner", () -> itemRepository.findByOwner(owner));
+        queries.put("findByIdGreaterThanOrderByIdAsc",
+                () -> itemRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(100)));
+        queries.put("findAllByRequestIn", () -> itemRepository.findAllByRequestIn(List.of(1L, 2L)));
+        queries.put("findAllByRequestIn(Set)", () -> itemRepository.findAllByRequestIn(Set.of(1L, 2L)));
+
+        queries.put("findCommentsWithAuthorByItemId",
+                () -> commentRepository.findCommentsWithAuthorByItemId(item, PAGE));
+        queries.put("findAllCommentsByItemIdsOrderByDesc",
+                () -> commentRepository.findAllCommentsByItemIdsOrderByDesc(List.of(1L, 2L, 3L)));
+
+        queries.put("findAllByRequestorOrderByCreated",
+                () -> requestRepository.findAllByRequestorOrderByCreated(booker.getId()));
+        queries.put("findAllByRequestorIn", () -> requestRepository.findAllByRequestorIn(List.of(booker.getId())));
+        queries.put("findOtherUsersRequests",
+                () -> requestRepository.findOtherUsersRequests(booker.getId(), FIRST, FIRST_ID, PAGE));
+        queries.put("getRequestById", () -> requestRepository.getRequestById(1L));
+        queries.put("findExistingIds", () -> requestRepository.findExistingIds(List.of(1L, 2L)));
+
+        queries.put("getUserById", () -> userRepository.getUserById(1L));
+        queries.put("getUserByEmail", () -> userRepository.getUserByEmail("user1@example.com"));
+        queries.put("findByIdIn", () -> userRepository.findByIdIn(List.of(1L, 2L)));
+
+        return queries.entrySet().stream()
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+                    statements.clear();
+                    query.getValue().run();
+
+                    assertFalse(statements.isEmpty(), "No SQL recorded for " + query.getKey());
+                    for (String sql : statements) {
+                        assertNoSeqScan(sql);
+                    }
+                }));
+    }
+
+    private void assertNoSeqScan(String sql) {
+        String plan = jdbc.queryForObject("EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numberedParameters(sql), String.class);
+        try {
+            List<String> scanned = new ArrayList<>();
+            collectSeqScans(mapper.readTree(plan).get(0).get("Plan"), scanned);
+            if (!scanned.isEmpty()) {
+                fail("Sequential scan of " + scanned + " in:\n" + sql + "\nplan:\n" + plan);
+            }
+        } catch (JsonProcessingException e) {
+            fail("Unreadable plan for:\n" + sql, e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> scanned) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            scanned.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, scanned);
+        }
+    }
+
+    // Параметры JDBC (?) в виде $1, $2, ..., которые понимает EXPLAIN (GENERIC_PLAN)
+    private static String numberedParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    // Пользователи 1..OWNERS владеют вещами, остальные бронируют, комментируют и создают запросы
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@example.com"});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (long id = 1; id <= REQUESTS; id++) {
+            requests.add(new Object[]{id, "request " + id, renter(id), Timestamp.valueOf(now.minusHours(id))});
+        }
+        jdbc.batchUpdate("INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        String[] statuses = {"APPROVED", "APPROVED", "WAITING", "REJECTED", "APPROVED"};
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Object[]{id, "item " + id, "description " + id, true, id % OWNERS + 1,
+                    id <= REQUESTS ? id : null});
+            for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                LocalDateTime start = now.plusWeeks(b - BOOKINGS_PER_ITEM / 2);
+                bookings.add(new Object[]{(long) bookings.size() + 1, Timestamp.valueOf(start),
+                        Timestamp.valueOf(start.plusDays(3)), id, renter(id + b), statuses[b]});
+            }
+            for (int c = 0; c < COMMENTS_PER_ITEM; c++) {
+                comments.add(new Object[]{(long) comments.size() + 1, "comment " + c, id, renter(id + c),
+                        Timestamp.valueOf(now.minusDays(c))});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO items (id, name, description, is_available, owner_id, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", items);
+        jdbc.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", bookings);
+        jdbc.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)", comments);
+
+        jdbc.execute("ANALYZE");
+    }
+
+    private static long renter(long seed) {
+        return OWNERS + 1 + seed % (USERS - OWNERS);
+    }
+}
@@ -5,23 +5,36 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.server.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionOutcome;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionsDto;
+import ru.practicum.shareit.server.booking.dto.BookingMapper;
 import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
 import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.exception.ForbiddenException;
 import ru.practicum.shareit.server.item.dto.ItemResponseDto;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.user.dto.ShortUserResponseDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -115,8 +128,8 @@ class BookingControllerTest {
 
     @Test
     void getAllBookingAtState_ReturnsList() throws Exception {
-        when(bookingService.getAllBookingAtState(eq(2L), eq("ALL")))
-                .thenReturn(List.of(bookingResponseDto));
+        when(bookingService.getAllBookingAtState(eq(2L), eq("ALL"), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(List.of(bookingResponseDto), null));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 2L)
@@ -127,13 +140,102 @@ class BookingControllerTest {
 
     @Test
     void getAllOwnerBookingAtState_ReturnsList() throws Exception {
-        when(bookingService.getAllOwnerBookingAtState(eq(1L), eq("ALL")))
-                .thenReturn(List.of(bookingResponseDto));
+        when(bookingService.getAllOwnerBookingAtState(eq(1L), eq("ALL"), eq("cursor"), eq(1)))
+                .thenReturn(new KeysetPage<>(List.of(bookingResponseDto), "next"));
 
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
-                        .param("state", "ALL"))
+                        .param("state", "ALL")
+                        .param("cursor", "cursor")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$.size()").value(1));
+    }
+
+    @Test
+    void getBookingById_MatchingETag_NotModified() throws Exception {
+        when(bookingService.getBookingETag(100L, 2L)).thenReturn("\"booking-v1\"");
+
+        mvc.perform(get("/bookings/{bookingId}", 100L)
+                        .header("X-Sharer-User-Id", 2L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"booking-v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, "X-Sharer-User-Id"));
+
+        verify(bookingService, never()).getBookingById(anyLong(), anyLong());
+    }
+
+    @Test
+    void getAllBookingAtState_MatchingETag_NotModified() throws Exception {
+        when(bookingService.getBookingsETag(2L, false)).thenReturn("\"bookings-v5\"");
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 2L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"bookings-v5\"")
+                        .param("state", "waiting"))
+                .andExpect(status().isNotModified());
+
+        verify(bookingService, never()).getAllBookingAtState(anyLong(), any(), any(), any());
+    }
+
+    // Чужому пользователю тег не выдаётся: проверка доступа раньше сравнения с If-None-Match
+    @Test
+    void getBookingById_MatchingETagOfStranger_Forbidden() throws Exception {
+        when(bookingService.getBookingETag(100L, 3L))
+                .thenThrow(new ForbiddenException("Only item owner or booker can get booking"));
+
+        mvc.perform(get("/bookings/{bookingId}", 100L)
+                        .header("X-Sharer-User-Id", 3L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"booking-v1\""))
+                .andExpect(status().isForbidden());
+
+        verify(bookingService, never()).getBookingById(anyLong(), anyLong());
+    }
+
+    // Список текущих бронирований меняется со временем, версии данных для него не подходят
+    @Test
+    void getAllOwnerBookingAtState_TimeDependentState_IgnoresVersions() throws Exception {
+        when(bookingService.getAllOwnerBookingAtState(eq(1L), eq("CURRENT"), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(List.of(bookingResponseDto), null));
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "CURRENT"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()").value(1));
+
+        verify(bookingService, never()).getBookingsETag(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void decideBookings_ReturnsOutcomePerBooking() throws Exception {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(100L);
+        decision.setApproved(true);
+        BookingDecisionsDto dto = new BookingDecisionsDto();
+        dto.setDecisions(List.of(decision));
+
+        when(bookingService.decideBookings(eq(1L), any()))
+                .thenReturn(List.of(BookingMapper.toBookingDecisionResultDto(100L, BookingDecisionOutcome.APPROVED)));
+
+        mvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId").value(100L))
+                .andExpect(jsonPath("$[0].outcome").value("APPROVED"));
+    }
+
+    @Test
+    void decideBookings_EmptyBatch_BadRequest() throws Exception {
+        mvc.perform(patch("/bookings/owner/decisions")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"decisions\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).decideBookings(anyLong(), any());
     }
 }
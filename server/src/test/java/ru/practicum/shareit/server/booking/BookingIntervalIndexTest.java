@@ -0,0 +1,214 @@
+package ru.practicum.shareit.server.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
+import ru.practicum.shareit.server.booking.dal.BookingRepository;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.exception.ConflictException;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookingIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+    private Item item;
+    private final AtomicLong ids = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        index = new BookingIntervalIndex(bookingRepository, 100, Duration.ofHours(1));
+
+        item = new Item();
+        item.setId(1L);
+    }
+
+    @Test
+    void scheduleIsLoadedFromRepositoryOnce() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L),
+                eq(BookingIntervalIndex.OCCUPYING_STATUSES), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking(1L, day(1), day(3))));
+
+        assertFalse(isFree(day(2), day(4)));
+        assertTrue(isFree(day(3), day(4)));
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndAfter(eq(1L),
+                eq(BookingIntervalIndex.OCCUPYING_STATUSES), any(LocalDateTime.class));
+    }
+
+    @Test
+    void scheduleLoadsOnlyBookingsEndingAfterNow() {
+        LocalDateTime before = LocalDateTime.now();
+
+        isFree(day(1), day(2));
+
+        ArgumentCaptor<LocalDateTime> endAfter = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bookingRepository).findAllByItemIdAndStatusInAndEndAfter(eq(1L),
+                eq(BookingIntervalIndex.OCCUPYING_STATUSES), endAfter.capture());
+        assertFalse(endAfter.getValue().isBefore(before));
+        assertFalse(endAfter.getValue().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void endedBookingsAreDroppedFromSchedule() {
+        LocalDateTime now = LocalDateTime.now();
+        index.reserve(booking(null, now.minusDays(3), now.minusDays(2)), this::save);
+        index.reserve(booking(null, now.minusDays(1), now.plusDays(1)), this::save);
+
+        // закончившаяся бронь снята при обращении, текущая осталась
+        assertTrue(isFree(now.minusDays(3), now.minusDays(2)));
+        assertFalse(isFree(now, now.plusHours(1)));
+    }
+
+    @Test
+    void clearReloadsSchedulesFromRepository() {
+        index.reserve(booking(null, day(1), day(3)), this::save);
+
+        index.clear();
+
+        // брони удалены в БД в обход индекса: после сброса расписание читается заново
+        assertTrue(isFree(day(1), day(3)));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L),
+                eq(BookingIntervalIndex.OCCUPYING_STATUSES), any(LocalDateTime.class));
+    }
+
+    @Test
+    void releaseKeepsLongerBookingsVisible() {
+        Booking longBooking = index.reserve(booking(null, day(0), day(30)), this::save);
+        Booking lastBooking = index.reserve(booking(null, day(31), day(32)), this::save);
+        for (int i = 0; i < 20; i++) {
+            index.reserve(booking(null, day(40 + i), day(40 + i).plusHours(1)), this::save);
+        }
+
+        // наибольший конец в узлах пересчитывается при удалении: после отмены длинной брони окно внутри неё свободно
+        assertFalse(isFree(day(20), day(21)));
+        index.release(longBooking);
+        assertTrue(isFree(day(20), day(21)));
+        assertEquals(day(32), index.nextFreeSlot(1L, day(31), Duration.ofHours(1)));
+
+        index.release(lastBooking);
+        assertEquals(day(31), index.nextFreeSlot(1L, day(31), Duration.ofHours(1)));
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        index.reserve(booking(null, day(1), day(2)), this::save);
+
+        assertTrue(isFree(day(0), day(1)));
+        assertTrue(isFree(day(2), day(3)));
+        assertFalse(isFree(day(0), day(3)));
+    }
+
+    @Test
+    void longBookingIsFoundFarBeforeRequestedStart() {
+        index.reserve(booking(null, day(0), day(30)), this::save);
+        index.reserve(booking(null, day(31), day(32)), this::save);
+
+        assertFalse(isFree(day(20), day(21)));
+        assertTrue(isFree(day(30), day(31)));
+    }
+
+    @Test
+    void reserveOverlappingThrowsAndDoesNotSave() {
+        index.reserve(booking(null, day(1), day(3)), this::save);
+
+        assertThrows(ConflictException.class, () ->
+                index.reserve(booking(null, day(2), day(4)), b -> fail("Must not be saved")));
+    }
+
+    @Test
+    void releasedIntervalBecomesFree() {
+        Booking saved = index.reserve(booking(null, day(1), day(3)), this::save);
+
+        index.release(saved);
+
+        assertTrue(isFree(day(1), day(3)));
+    }
+
+    @Test
+    void releaseOfUnknownItemIsIgnored() {
+        index.release(booking(1L, day(1), day(2)));
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void nextFreeSlotSkipsBusyIntervals() {
+        index.reserve(booking(null, day(1), day(3)), this::save);
+        index.reserve(booking(null, day(4), day(6)), this::save);
+        index.reserve(booking(null, day(7), day(8)), this::save);
+
+        assertEquals(day(0), index.nextFreeSlot(1L, day(0), Duration.ofDays(1)));
+        assertEquals(day(3), index.nextFreeSlot(1L, day(2), Duration.ofDays(1)));
+        assertEquals(day(8), index.nextFreeSlot(1L, day(2), Duration.ofDays(2)));
+        assertEquals(day(10), index.nextFreeSlot(1L, day(10), Duration.ofDays(5)));
+    }
+
+    @Test
+    void concurrentOverlappingReservesOnlyOneWins() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            int shift = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    index.reserve(booking(null, day(1).plusHours(shift), day(2).plusHours(shift)), this::save);
+                    return true;
+                } catch (ConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                reserved++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, reserved);
+    }
+
+    // Интервал свободен, если ближайшее свободное окно такой длины начинается с него самого
+    private boolean isFree(LocalDateTime start, LocalDateTime end) {
+        return index.nextFreeSlot(1L, start, Duration.between(start, end)).equals(start);
+    }
+
+    private Booking save(Booking booking) {
+        booking.setId(ids.incrementAndGet());
+        return booking;
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(end);
+        return booking;
+    }
+
+    private static LocalDateTime day(int days) {
+        return BASE.plusDays(days);
+    }
+}
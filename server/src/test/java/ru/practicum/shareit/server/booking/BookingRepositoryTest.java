@@ -0,0 +1,267 @@
+package ru.practicum.shareit.server.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.server.booking.dal.BookingDecisionTarget;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
+import ru.practicum.shareit.server.booking.dal.BookingRepository;
+import ru.practicum.shareit.server.booking.dal.ItemBookingDates;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.TimeInterval;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Страховка от N+1: выборка списка бронирований вместе с item и booker
+// должна укладываться в один SQL-запрос независимо от числа бронирований.
+// Плюс проверка агрегирующих запросов на реальной (H2) базе.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingRepositoryTest {
+
+    private static final int ITEMS_COUNT = 5;
+    private static final LocalDateTime FIRST = KeysetCursor.decode(null).getPosition();
+    private static final Long FIRST_ID = KeysetCursor.decode(null).getId();
+    private static final Pageable PAGE = PageRequest.of(0, 100);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private LocalDateTime now;
+    private List<Long> itemIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        owner = em.persist(user("owner"));
+        booker = em.persist(user("booker"));
+
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        itemIds = new ArrayList<>();
+
+        // у каждой вещи свои прошлое, текущее, будущее и ожидающее бронирования,
+        // все item и booker разные объекты, так что ленивая загрузка дала бы N запросов
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            Item item = em.persist(item(i));
+            itemIds.add(item.getId());
+
+            em.persist(booking(item, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED));
+            em.persist(booking(item, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED));
+            em.persist(booking(item, now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED));
+            em.persist(booking(item, now.plusDays(4), now.plusDays(5), BookingStatus.WAITING));
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void bookerListingsUseSingleStatement() {
+        assertSingleStatement(() -> bookingRepository.findBookingsByBooker(booker, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findBookingsByBookerAndStatus(
+                booker, BookingStatus.WAITING, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findCurrentBookings(booker, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findPastBookings(booker, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findFutureBookings(booker, FIRST, FIRST_ID, PAGE));
+    }
+
+    @Test
+    void ownerListingsUseSingleStatement() {
+        Long ownerId = owner.getId();
+
+        assertSingleStatement(() -> bookingRepository.findAllBookingsByOwner(ownerId, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findBookingsByOwnerAndStatus(
+                ownerId, BookingStatus.WAITING, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findCurrentBookingsByOwner(ownerId, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findPastBookingsByOwner(ownerId, FIRST, FIRST_ID, PAGE));
+        assertSingleStatement(() -> bookingRepository.findFutureBookingsByOwner(ownerId, FIRST, FIRST_ID, PAGE));
+    }
+
+    @Test
+    void finishedApprovedBookingOfItemIsFound() {
+        Long itemId = itemIds.getFirst();
+
+        assertTrue(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                booker.getId(), itemId, BookingStatus.APPROVED, now));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                owner.getId(), itemId, BookingStatus.APPROVED, now));
+        // ожидающая бронь закончится только через пять дней
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                booker.getId(), itemId, BookingStatus.WAITING, now.plusDays(4)));
+    }
+
+    @Test
+    void approvedBookingDatesAreAggregatedPerItem() {
+        List<ItemBookingDates> dates = bookingRepository.findApprovedBookingDatesByItemIds(itemIds, now);
+
+        // по строке на вещь; текущая бронь не прошлая и не будущая, WAITING не учитывается
+        assertEquals(ITEMS_COUNT, dates.size());
+        dates.forEach(itemDates -> {
+            assertEquals(now.minusDays(2), itemDates.getLastBooking());
+            assertEquals(now.plusDays(2), itemDates.getNextBooking());
+        });
+    }
+
+    @Test
+    void approvedBookingDatesSkipItemsWithoutApprovedBookings() {
+        Item item = em.persist(item(ITEMS_COUNT));
+        em.persist(booking(item, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING));
+        em.flush();
+
+        assertTrue(bookingRepository.findApprovedBookingDatesByItemIds(List.of(item.getId()), now).isEmpty());
+    }
+
+    private void assertSingleStatement(Supplier<? extends Collection<Booking>> listing) {
+        em.clear();
+        statistics.clear();
+
+        Collection<Booking> bookings = listing.get();
+
+        // то же обращение к связям, что и при маппинге в BookingResponseDto
+        bookings.forEach(booking -> {
+            booking.getItem().getName();
+            booking.getBooker().getName();
+        });
+
+        assertFalse(bookings.isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount(),
+                "Listing of " + bookings.size() + " bookings must cost one SQL statement");
+    }
+
+    @Test
+    void intervalsBetweenReadOnlyBookingsCrossingRange() {
+        Long itemId = itemIds.getFirst();
+
+        // прошедшая бронь кончилась до начала диапазона, WAITING [+4, +5) начинается на его конце
+        assertEquals(List.of(
+                        new TimeInterval(now.minusDays(1), now.plusDays(1)),
+                        new TimeInterval(now.plusDays(2), now.plusDays(3))),
+                bookingRepository.findIntervalsBetween(itemId, BookingIntervalIndex.OCCUPYING_STATUSES,
+                        now.minusDays(2), now.plusDays(4)));
+        assertEquals(List.of(new TimeInterval(now.plusDays(4), now.plusDays(5))),
+                bookingRepository.findIntervalsBetween(itemId, List.of(BookingStatus.WAITING),
+                        now.minusDays(10), now.plusDays(10)));
+    }
+
+    @Test
+    void countPassedBoundariesCountsStartsAndEndsBeforeNow() {
+        Long itemId = itemIds.getFirst();
+
+        // прошедшее бронирование - начало и конец, текущее - только начало
+        assertEquals(3, bookingRepository.countPassedBoundaries(itemId, now));
+        // конец текущего бронирования тоже наступил
+        assertEquals(4, bookingRepository.countPassedBoundaries(itemId, now.plusDays(1)));
+        assertEquals(0, bookingRepository.countPassedBoundaries(itemId, now.minusDays(4)));
+    }
+
+    @Test
+    void compareAndSetStatusChangesOnlyExpectedStatus() {
+        Long waitingId = em.getEntityManager()
+                .createQuery("SELECT b.id FROM Booking b WHERE b.status = :status", Long.class)
+                .setParameter("status", BookingStatus.WAITING)
+                .setMaxResults(1)
+                .getSingleResult();
+
+        assertEquals(1, bookingRepository.compareAndSetStatus(waitingId, BookingStatus.WAITING, BookingStatus.APPROVED));
+        // второе решение по тому же бронированию уже не проходит
+        assertEquals(0, bookingRepository.compareAndSetStatus(waitingId, BookingStatus.WAITING, BookingStatus.REJECTED));
+
+        em.clear();
+        assertEquals(BookingStatus.APPROVED, em.find(Booking.class, waitingId).getStatus());
+    }
+
+    @Test
+    void decisionTargetsAndBatchTransitionUseBookingOwnerAndStatus() {
+        List<Long> waitingIds = em.getEntityManager()
+                .createQuery("SELECT b.id FROM Booking b WHERE b.status = :status ORDER BY b.id", Long.class)
+                .setParameter("status", BookingStatus.WAITING)
+                .getResultList();
+
+        List<BookingDecisionTarget> targets = bookingRepository.findDecisionTargets(waitingIds);
+        assertEquals(ITEMS_COUNT, targets.size());
+        targets.forEach(target -> {
+            assertEquals(owner.getId(), target.getOwnerId());
+            assertEquals(BookingStatus.WAITING, target.getStatus());
+            assertTrue(itemIds.contains(target.getItemId()));
+            assertEquals(now.plusDays(4), target.getStartDate());
+        });
+
+        List<Long> firstTwo = waitingIds.subList(0, 2);
+        assertEquals(2, bookingRepository.compareAndSetStatuses(firstTwo, BookingStatus.WAITING, BookingStatus.REJECTED));
+        // уже отклонённые не меняются, остальные WAITING - меняются
+        assertEquals(ITEMS_COUNT - 2,
+                bookingRepository.compareAndSetStatuses(waitingIds, BookingStatus.WAITING, BookingStatus.APPROVED));
+    }
+
+    // id из последовательности известны до INSERT, поэтому вставки одной транзакции идут пакетами:
+    // пара запросов к последовательности и по statement на пакет вместо отдельного INSERT на каждую строку
+    @Test
+    void bulkInsertIsBatched() {
+        Item item = em.find(Item.class, itemIds.getFirst());
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bookings.add(booking(item, now.plusDays(10 + i), now.plusDays(10 + i).plusHours(1), BookingStatus.WAITING));
+        }
+        statistics.clear();
+
+        bookingRepository.saveAll(bookings);
+        em.flush();
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "120 inserts took " + statistics.getPrepareStatementCount() + " SQL statements");
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+
+    private Item item(int number) {
+        Item item = new Item();
+        item.setName("Item " + number);
+        item.setDescription("Description " + number);
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        return item;
+    }
+
+    private Booking booking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return booking;
+    }
+}
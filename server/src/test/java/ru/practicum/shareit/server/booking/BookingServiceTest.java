@@ -3,27 +3,40 @@ package ru.practicum.shareit.server.booking;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.server.booking.dal.BookingDecisionTarget;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.server.booking.dal.BookingRepository;
 import ru.practicum.shareit.server.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionOutcome;
+import ru.practicum.shareit.server.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.server.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
 import ru.practicum.shareit.server.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
+import ru.practicum.shareit.server.exception.ConflictException;
 import ru.practicum.shareit.server.exception.ForbiddenException;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dal.ItemRepository;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.user.dal.UserRepository;
 import ru.practicum.shareit.server.user.model.User;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -40,9 +53,13 @@ class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher events;
+
     private BookingServiceImpl bookingService;
 
+    private ResourceVersions versions;
+
     private User booker;
     private User itemOwner;
     private Item item;
@@ -50,6 +67,10 @@ class BookingServiceTest {
 
     @BeforeEach
     void setUp() {
+        // индекс интервалов настоящий, поверх мока репозитория
+        versions = new ResourceVersions(100);
+        bookingService = new BookingServiceImpl(itemRepository, userRepository, bookingRepository,
+                new BookingIntervalIndex(bookingRepository, 100, Duration.ofHours(1)), events, versions);
 
         booker = new User();
         booker.setId(1L);
@@ -102,6 +123,45 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(booking.getId(), result.getId());
         assertEquals(booking.getStatus(), result.getStatus());
+        verify(events, times(2)).publishEvent(any(GatewayCacheInvalidation.class));
+    }
+
+    @Test
+    void createBookingOverlappingExistingConflict() {
+        Booking existing = new Booking();
+        existing.setId(2L);
+        existing.setItem(item);
+        existing.setStart(LocalDateTime.now().plusDays(1));
+        existing.setEnd(LocalDateTime.now().plusDays(3));
+
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
+        when(itemRepository.getItemById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(item.getId()),
+                eq(BookingIntervalIndex.OCCUPYING_STATUSES), any(LocalDateTime.class)))
+                .thenReturn(List.of(existing));
+
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(item.getId());
+        dto.setStart(LocalDateTime.now().plusDays(2));
+        dto.setEnd(LocalDateTime.now().plusDays(4));
+
+        assertThrows(ConflictException.class, () ->
+                bookingService.createBooking(dto, booker.getId()));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBookingEndBeforeStartValidationException() {
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
+        when(itemRepository.getItemById(anyLong())).thenReturn(Optional.of(item));
+
+        BookingCreateDto dto = new BookingCreateDto();
+        dto.setItemId(item.getId());
+        dto.setStart(LocalDateTime.now().plusDays(2));
+        dto.setEnd(LocalDateTime.now().plusDays(1));
+
+        assertThrows(ValidationException.class, () ->
+                bookingService.createBooking(dto, booker.getId()));
     }
 
     @Test
@@ -154,12 +214,14 @@ class BookingServiceTest {
         booking.setStatus(BookingStatus.WAITING);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(itemOwner));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.compareAndSetStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
 
         BookingResponseDto result = bookingService.updateBooking(booking.getId(), itemOwner.getId(), true);
 
         assertNotNull(result);
         assertEquals(BookingStatus.APPROVED, result.getStatus());
+        verify(events, times(2)).publishEvent(any(GatewayCacheInvalidation.class));
     }
 
     @Test
@@ -167,7 +229,8 @@ class BookingServiceTest {
         booking.setStatus(BookingStatus.WAITING);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(itemOwner));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+        when(bookingRepository.compareAndSetStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
 
         BookingResponseDto result = bookingService.updateBooking(booking.getId(), itemOwner.getId(), false);
 
@@ -175,6 +238,20 @@ class BookingServiceTest {
         assertEquals(BookingStatus.REJECTED, result.getStatus());
     }
 
+    // Параллельный запрос успел принять решение между чтением бронирования и UPDATE
+    @Test
+    void updateBookingConcurrentlyDecidedTest() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(itemOwner));
+        when(bookingRepository.compareAndSetStatus(booking.getId(), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(0);
+
+        assertThrows(ConflictException.class, () ->
+                bookingService.updateBooking(booking.getId(), itemOwner.getId(), true));
+        verify(events, never()).publishEvent(any(GatewayCacheInvalidation.class));
+    }
+
     @Test
     void updateBookingNotOwnerTest() {
         booking.setStatus(BookingStatus.WAITING);
@@ -227,24 +304,28 @@ class BookingServiceTest {
     @Test
     void getAllBookingAtStateTest() {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
-        when(bookingRepository.findBookingsByBookerOrderByStartDesc(any(User.class)))
+        when(bookingRepository.findBookingsByBooker(any(User.class), any(LocalDateTime.class), anyLong(),
+                any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        Collection<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "ALL");
+        KeysetPage<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "ALL", null, 20);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void getAllBookingAtStateCURRENT() {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
-        when(bookingRepository.findCurrentBookings(any(User.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findCurrentBookings(any(User.class), any(LocalDateTime.class), anyLong(),
+                any(Pageable.class)))
+                .thenReturn(List.of(booking));
 
-        Collection<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "CURRENT");
+        KeysetPage<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "CURRENT", null, 20);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.getContent().isEmpty());
     }
 
 
@@ -252,10 +333,10 @@ class BookingServiceTest {
     void getAllBookingAtStatePAST() {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
 
-        Collection<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "PAST");
+        KeysetPage<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "PAST", null, 20);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.getContent().isEmpty());
     }
 
 
@@ -264,34 +345,207 @@ class BookingServiceTest {
     void getAllBookingAtStateFUTURE() {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
 
-        Collection<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "FUTURE");
+        KeysetPage<BookingResponseDto> result = bookingService.getAllBookingAtState(booker.getId(), "FUTURE", null, 20);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.getContent().isEmpty());
     }
 
     @Test
     void getAllBookingAtStateInvalidStateTest() {
         assertThrows(ValidationException.class, () ->
-                bookingService.getAllBookingAtState(booker.getId(), "UNKNOWN"));
+                bookingService.getAllBookingAtState(booker.getId(), "UNKNOWN", null, 20));
     }
 
 
     @Test
     void getAllOwnerBookingAtStateTest() {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(booker));
-        when(bookingRepository.findAllBookingsByOwner(anyLong()))
+        when(bookingRepository.findAllBookingsByOwner(anyLong(), any(LocalDateTime.class), anyLong(),
+                any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        Collection<BookingResponseDto> result = bookingService.getAllOwnerBookingAtState(booker.getId(), "ALL");
+        KeysetPage<BookingResponseDto> result = bookingService.getAllOwnerBookingAtState(booker.getId(), "ALL", null, 20);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.getContent().isEmpty());
+    }
+
+    @Test
+    void getAllOwnerBookingAtStateFullPageReturnsCursor() {
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(itemOwner));
+        when(bookingRepository.findAllBookingsByOwner(anyLong(), any(LocalDateTime.class), anyLong(),
+                any(Pageable.class)))
+                .thenReturn(List.of(booking));
+
+        KeysetPage<BookingResponseDto> firstPage =
+                bookingService.getAllOwnerBookingAtState(itemOwner.getId(), "ALL", null, 1);
+
+        assertNotNull(firstPage.getNextCursor());
+
+        KeysetCursor cursor = KeysetCursor.decode(firstPage.getNextCursor());
+        assertEquals(booking.getStart(), cursor.getPosition());
+        assertEquals(booking.getId(), cursor.getId());
+    }
+
+    @Test
+    void getAllBookingAtStateInvalidCursor() {
+        assertThrows(ValidationException.class, () ->
+                bookingService.getAllBookingAtState(booker.getId(), "ALL", "not-a-cursor", 20));
+    }
+
+    @Test
+    void getAllBookingAtStateInvalidSize() {
+        assertThrows(ValidationException.class, () ->
+                bookingService.getAllBookingAtState(booker.getId(), "ALL", null, 0));
     }
 
     @Test
     void getAllOwnerBookingAtStateInvalidState() {
         assertThrows(ValidationException.class, () ->
-                bookingService.getAllOwnerBookingAtState(booker.getId(), "UNKNOWN"));
+                bookingService.getAllOwnerBookingAtState(booker.getId(), "UNKNOWN", null, 20));
+    }
+
+    @Test
+    void decideBookingsAppliesValidDecisionsAndReportsEachId() {
+        when(userRepository.getUserById(itemOwner.getId())).thenReturn(Optional.of(itemOwner));
+        when(bookingRepository.findDecisionTargets(Set.of(10L, 11L, 12L, 13L, 14L))).thenReturn(List.of(
+                target(10L, itemOwner.getId(), BookingStatus.WAITING),
+                target(11L, itemOwner.getId(), BookingStatus.WAITING),
+                target(13L, booker.getId(), BookingStatus.WAITING),
+                target(14L, itemOwner.getId(), BookingStatus.APPROVED)));
+        when(bookingRepository.compareAndSetStatuses(List.of(10L), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.compareAndSetStatuses(List.of(11L), BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookings(itemOwner.getId(), List.of(
+                decision(10L, true), decision(11L, false), decision(12L, true), decision(13L, true), decision(14L, false)));
+
+        assertEquals(List.of(10L, 11L, 12L, 13L, 14L), results.stream().map(BookingDecisionResultDto::getBookingId).toList());
+        assertEquals(List.of(BookingDecisionOutcome.APPROVED, BookingDecisionOutcome.REJECTED,
+                        BookingDecisionOutcome.NOT_FOUND, BookingDecisionOutcome.FORBIDDEN, BookingDecisionOutcome.NOT_WAITING),
+                results.stream().map(BookingDecisionResultDto::getOutcome).toList());
+        verify(events, times(2)).publishEvent(any(GatewayCacheInvalidation.class));
+    }
+
+    // Между чтением и UPDATE по одному из бронирований решение принял параллельный запрос
+    @Test
+    void decideBookingsReportsConcurrentlyDecidedBookings() {
+        when(userRepository.getUserById(itemOwner.getId())).thenReturn(Optional.of(itemOwner));
+        when(bookingRepository.findDecisionTargets(Set.of(10L, 11L))).thenReturn(List.of(
+                target(10L, itemOwner.getId(), BookingStatus.WAITING),
+                target(11L, itemOwner.getId(), BookingStatus.WAITING)));
+        when(bookingRepository.compareAndSetStatuses(List.of(10L, 11L), BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findDecisionTargets(List.of(10L, 11L))).thenReturn(List.of(
+                target(10L, itemOwner.getId(), BookingStatus.APPROVED),
+                target(11L, itemOwner.getId(), BookingStatus.REJECTED)));
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookings(itemOwner.getId(),
+                List.of(decision(10L, true), decision(11L, true)));
+
+        assertEquals(BookingDecisionOutcome.APPROVED, results.get(0).getOutcome());
+        assertEquals(BookingDecisionOutcome.NOT_WAITING, results.get(1).getOutcome());
+    }
+
+    @Test
+    void decideBookingsWithoutApplicableDecisionsPublishesNothing() {
+        when(userRepository.getUserById(itemOwner.getId())).thenReturn(Optional.of(itemOwner));
+        when(bookingRepository.findDecisionTargets(Set.of(12L))).thenReturn(List.of());
+
+        List<BookingDecisionResultDto> results = bookingService.decideBookings(itemOwner.getId(), List.of(decision(12L, true)));
+
+        assertEquals(BookingDecisionOutcome.NOT_FOUND, results.getFirst().getOutcome());
+        verify(bookingRepository, never()).compareAndSetStatuses(any(), any(), any());
+        verify(events, never()).publishEvent(any(GatewayCacheInvalidation.class));
+    }
+
+    @Test
+    void decideBookingsDuplicateIdsTest() {
+        when(userRepository.getUserById(itemOwner.getId())).thenReturn(Optional.of(itemOwner));
+
+        assertThrows(ValidationException.class, () -> bookingService.decideBookings(itemOwner.getId(),
+                List.of(decision(10L, true), decision(10L, false))));
+    }
+
+    private static BookingDecisionDto decision(Long bookingId, boolean approved) {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingId);
+        decision.setApproved(approved);
+        return decision;
+    }
+
+    private BookingDecisionTarget target(Long id, Long ownerId, BookingStatus status) {
+        return new BookingDecisionTarget() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getItemId() {
+                return item.getId();
+            }
+
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            public LocalDateTime getStartDate() {
+                return booking.getStart();
+            }
+
+            public LocalDateTime getEndDate() {
+                return booking.getEnd();
+            }
+        };
+    }
+
+    // ========== ETag ==========
+
+    @Test
+    void getBookingETagIsSameForBookerAndOwner() {
+        when(userRepository.getUserById(booker.getId())).thenReturn(Optional.of(booker));
+        when(userRepository.getUserById(itemOwner.getId())).thenReturn(Optional.of(itemOwner));
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertEquals(versions.resourceTag(GatewayCacheRegion.BOOKINGS, booking.getId()),
+                bookingService.getBookingETag(booking.getId(), booker.getId()));
+        assertEquals(bookingService.getBookingETag(booking.getId(), booker.getId()),
+                bookingService.getBookingETag(booking.getId(), itemOwner.getId()));
+    }
+
+    @Test
+    void getBookingETagOfStrangerThrowsForbidden() {
+        User stranger = new User();
+        stranger.setId(3L);
+        when(userRepository.getUserById(stranger.getId())).thenReturn(Optional.of(stranger));
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThrows(ForbiddenException.class, () -> bookingService.getBookingETag(booking.getId(), stranger.getId()));
+    }
+
+    @Test
+    void getBookingsETagDiffersByUserAndRole() {
+        when(userRepository.getUserById(booker.getId())).thenReturn(Optional.of(booker));
+        when(userRepository.getUserById(itemOwner.getId())).thenReturn(Optional.of(itemOwner));
+
+        Set<String> tags = Set.copyOf(List.of(
+                bookingService.getBookingsETag(booker.getId(), false),
+                bookingService.getBookingsETag(booker.getId(), true),
+                bookingService.getBookingsETag(itemOwner.getId(), false),
+                bookingService.getBookingsETag(itemOwner.getId(), true)));
+
+        assertEquals(4, tags.size());
+    }
+
+    @Test
+    void getBookingsETagOfUnknownUserThrowsForbidden() {
+        when(userRepository.getUserById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ForbiddenException.class, () -> bookingService.getBookingsETag(999L, false));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.server.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GatewayCacheNotifierTest {
+
+    private static final String GATEWAY_URL = "http://gateway:8080";
+
+    private MockRestServiceServer gateway;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        gateway = MockRestServiceServer.bindTo(builder).build();
+        restClient = builder.build();
+    }
+
+    @Test
+    void invalidationIsPostedToEveryGateway() {
+        GatewayCacheNotifier notifier = new GatewayCacheNotifier(restClient,
+                List.of(GATEWAY_URL, "http://gateway-2:8080"), "secret", Runnable::run);
+
+        gateway.expect(requestTo(GATEWAY_URL + "/cache/invalidations"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(GatewayCacheNotifier.TOKEN_HEADER, "secret"))
+                .andExpect(jsonPath("$.region").value("ITEMS"))
+                .andExpect(jsonPath("$.ids[0]").value(5))
+                .andRespond(withSuccess());
+        gateway.expect(requestTo("http://gateway-2:8080/cache/invalidations"))
+                .andRespond(withSuccess());
+
+        notifier.onInvalidation(GatewayCacheInvalidation.items(5L));
+
+        gateway.verify();
+    }
+
+    @Test
+    void failedDeliveryIsNotPropagated() {
+        GatewayCacheNotifier notifier = new GatewayCacheNotifier(restClient, List.of(GATEWAY_URL), "secret",
+                Runnable::run);
+
+        gateway.expect(requestTo(GATEWAY_URL + "/cache/invalidations"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        notifier.onInvalidation(GatewayCacheInvalidation.requests());
+
+        gateway.verify();
+    }
+
+    @Test
+    void nothingIsSentWithoutGateways() {
+        GatewayCacheNotifier notifier = new GatewayCacheNotifier(restClient, List.of(), "", Runnable::run);
+
+        notifier.onInvalidation(GatewayCacheInvalidation.items());
+
+        gateway.verify();
+    }
+
+    @Test
+    void nothingIsSentWithoutToken() {
+        GatewayCacheNotifier notifier = new GatewayCacheNotifier(restClient, List.of(GATEWAY_URL), " ",
+                Runnable::run);
+
+        notifier.onInvalidation(GatewayCacheInvalidation.items(5L));
+
+        gateway.verify();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.server.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions versions = new ResourceVersions(100);
+
+    @Test
+    void tagIsQuotedAndStableWithoutChanges() {
+        String tag = versions.resourceTag(GatewayCacheRegion.ITEMS, 1L, 3L);
+
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+        assertEquals(tag, versions.resourceTag(GatewayCacheRegion.ITEMS, 1L, 3L));
+        assertNotEquals(tag, versions.resourceTag(GatewayCacheRegion.ITEMS, 1L, 4L));
+    }
+
+    @Test
+    void changeOfResourceChangesOnlyItsTagAndRegionLists() {
+        String item1 = versions.resourceTag(GatewayCacheRegion.ITEMS, 1L);
+        String item2 = versions.resourceTag(GatewayCacheRegion.ITEMS, 2L);
+        String items = versions.listTag(GatewayCacheRegion.ITEMS);
+        String requests = versions.listTag(GatewayCacheRegion.REQUESTS);
+
+        versions.onChange(GatewayCacheInvalidation.items(1L));
+
+        assertNotEquals(item1, versions.resourceTag(GatewayCacheRegion.ITEMS, 1L));
+        assertEquals(item2, versions.resourceTag(GatewayCacheRegion.ITEMS, 2L));
+        assertNotEquals(items, versions.listTag(GatewayCacheRegion.ITEMS));
+        assertEquals(requests, versions.listTag(GatewayCacheRegion.REQUESTS));
+    }
+
+    @Test
+    void changeWithoutIdsChangesEveryResourceOfRegion() {
+        String booking = versions.resourceTag(GatewayCacheRegion.BOOKINGS, 5L);
+        String item = versions.resourceTag(GatewayCacheRegion.ITEMS, 5L);
+
+        versions.onChange(GatewayCacheInvalidation.bookings());
+
+        assertNotEquals(booking, versions.resourceTag(GatewayCacheRegion.BOOKINGS, 5L));
+        assertEquals(item, versions.resourceTag(GatewayCacheRegion.ITEMS, 5L));
+    }
+
+    @Test
+    void listTagsOfDifferentUsersDiffer() {
+        assertNotEquals(versions.listTag(GatewayCacheRegion.REQUESTS, 1L),
+                versions.listTag(GatewayCacheRegion.REQUESTS, 2L));
+    }
+
+    // Вытесненная версия не возвращает объект к старому тегу: меняются теги всей группы
+    @Test
+    void evictedVersionChangesTagsOfRegion() {
+        ResourceVersions bounded = new ResourceVersions(1);
+        String item1 = bounded.resourceTag(GatewayCacheRegion.ITEMS, 1L);
+        String item2 = bounded.resourceTag(GatewayCacheRegion.ITEMS, 2L);
+        String item3 = bounded.resourceTag(GatewayCacheRegion.ITEMS, 3L);
+
+        bounded.onChange(GatewayCacheInvalidation.items(1L));
+        bounded.onChange(GatewayCacheInvalidation.items(2L));
+
+        assertNotEquals(item1, bounded.resourceTag(GatewayCacheRegion.ITEMS, 1L));
+        assertNotEquals(item2, bounded.resourceTag(GatewayCacheRegion.ITEMS, 2L));
+        assertNotEquals(item3, bounded.resourceTag(GatewayCacheRegion.ITEMS, 3L));
+    }
+
+    // Версии в памяти начинаются заново после перезапуска, теги разных запусков совпадать не должны
+    @Test
+    void tagsOfDifferentInstancesDiffer() {
+        assertNotEquals(versions.listTag(GatewayCacheRegion.ITEMS),
+                new ResourceVersions(100).listTag(GatewayCacheRegion.ITEMS));
+    }
+}
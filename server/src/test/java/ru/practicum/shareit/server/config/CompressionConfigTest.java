@@ -0,0 +1,40 @@
+package ru.practicum.shareit.server.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.common.compression.CompressionAlgorithm;
+import ru.practicum.shareit.common.compression.CompressionProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompressionConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+            .withUserConfiguration(CompressionConfig.class)
+            .withBean(SimpleMeterRegistry.class);
+
+    @Test
+    void settingsAreBoundFromServerPrefix() {
+        runner.withPropertyValues(
+                        "shareit.compression.algorithm=deflate",
+                        "shareit.compression.min-response-size=4KB",
+                        "shareit.compression.mime-types=application/json")
+                .run(context -> {
+                    CompressionProperties properties = context.getBean(CompressionProperties.class);
+                    assertEquals(CompressionAlgorithm.DEFLATE, properties.getAlgorithm());
+                    assertEquals(DataSize.ofKilobytes(4), properties.getMinResponseSize());
+                    assertEquals(List.of("application/json"), properties.getMimeTypes());
+
+                    FilterRegistrationBean<?> registration = context.getBean(FilterRegistrationBean.class);
+                    assertEquals(CompressionConfig.ORDER, registration.getOrder());
+                });
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.server.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.server.item.dal.CommentRepository;
+import ru.practicum.shareit.server.item.dal.CommentWithAuthor;
+import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CommentRepositoryTest {
+
+    private static final int COMMENTS_COUNT = 5;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private Item item;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        User owner = em.persist(user("owner"));
+
+        item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        item = em.persist(item);
+
+        // у каждого комментария свой автор, комментарий i написан i дней назад
+        for (int i = 0; i < COMMENTS_COUNT; i++) {
+            User author = em.persist(user("author" + i));
+
+            Comment comment = new Comment();
+            comment.setText("Comment " + i);
+            comment.setItemId(item.getId());
+            comment.setAuthorId(author.getId());
+            comment.setCreated(now.minusDays(i));
+            em.persist(comment);
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void commentsPageWithAuthorNamesInSingleStatement() {
+        statistics.clear();
+
+        List<CommentWithAuthor> comments = commentRepository.findCommentsWithAuthorByItemId(item.getId(), PageRequest.of(0, 3));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, comments.size());
+        assertEquals("Comment 0", comments.getFirst().getText());
+        assertEquals("author0", comments.getFirst().getAuthorName());
+        assertEquals(now, comments.getFirst().getCreated());
+    }
+
+    @Test
+    void nextPageContinuesFromNewestToOldest() {
+        List<CommentWithAuthor> comments = commentRepository.findCommentsWithAuthorByItemId(item.getId(), PageRequest.of(1, 3));
+
+        assertEquals(2, comments.size());
+        assertEquals("Comment 3", comments.get(0).getText());
+        assertEquals("author4", comments.get(1).getAuthorName());
+    }
+
+    @Test
+    void pageStartsAtNonAlignedOffset() {
+        // from=1, size=3: комментарии 1..3, а не страница 0 (комментарии 0..2)
+        List<CommentWithAuthor> comments = commentRepository.findCommentsWithAuthorByItemId(item.getId(),
+                new OffsetPageRequest(1, 3));
+
+        assertEquals(List.of("Comment 1", "Comment 2", "Comment 3"),
+                comments.stream().map(CommentWithAuthor::getText).toList());
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+}
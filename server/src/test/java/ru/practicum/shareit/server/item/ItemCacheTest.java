@@ -0,0 +1,95 @@
+package ru.practicum.shareit.server.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.server.config.CacheConfig;
+import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.dto.ItemRequestDto;
+import ru.practicum.shareit.server.item.dto.ItemResponseDto;
+import ru.practicum.shareit.server.item.dto.ItemUpdateRequestDto;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.user.dto.UserRequestDto;
+import ru.practicum.shareit.server.user.dto.UserResponseDto;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ItemCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache cache;
+    private UserResponseDto owner;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.ITEMS_CACHE);
+        assertNotNull(cache);
+        cache.clear();
+
+        UserRequestDto user = new UserRequestDto();
+        user.setName("owner");
+        user.setEmail("owner" + System.nanoTime() + "@item-cache.example.com");
+        owner = userService.createUser(user);
+    }
+
+    @Test
+    void getItemByIdIsReadThrough() {
+        ItemResponseDto created = createItem("Дрель");
+
+        Item first = itemRepository.getItemById(created.getId()).orElseThrow();
+        Item second = itemRepository.getItemById(created.getId()).orElseThrow();
+
+        assertSame(first, second);
+        assertNotNull(cache.get(created.getId()));
+    }
+
+    @Test
+    void updateItemEvictsAndDoesNotTouchCachedInstance() {
+        ItemResponseDto created = createItem("Дрель");
+        Item cached = itemRepository.getItemById(created.getId()).orElseThrow();
+
+        ItemUpdateRequestDto update = new ItemUpdateRequestDto();
+        update.setName("Пила");
+        itemService.updateItem(created.getId(), update, owner.getId());
+
+        assertEquals("Дрель", cached.getName());
+        assertNull(cache.get(created.getId()));
+        assertEquals("Пила", itemRepository.getItemById(created.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void deleteOwnerEvictsItems() {
+        ItemResponseDto created = createItem("Дрель");
+        itemRepository.getItemById(created.getId());
+
+        userService.deleteUser(owner.getId());
+
+        assertNull(cache.get(created.getId()));
+        assertTrue(itemRepository.getItemById(created.getId()).isEmpty());
+    }
+
+    private ItemResponseDto createItem(String name) {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setName(name);
+        dto.setDescription("Описание");
+        dto.setAvailable(true);
+        return itemService.createItem(dto, owner.getId());
+    }
+}
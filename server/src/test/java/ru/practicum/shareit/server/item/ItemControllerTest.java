@@ -5,35 +5,68 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
+import ru.practicum.shareit.server.config.WireFormatConfig;
+import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.item.dto.*;
+import ru.practicum.shareit.server.item.service.ItemImportService;
 import ru.practicum.shareit.server.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(WireFormatConfig.class)
 class ItemControllerTest {
 
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mvc;
 
     @MockitoBean
     private ItemService itemService;
 
+    @MockitoBean
+    private ItemImportService importService;
+
+    @MockitoBean
+    private ResourceVersions versions;
+
     @Autowired
     private ObjectMapper mapper;
 
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
     private ItemResponseDto itemResponseDto;
     private ItemWithCommentsResponseDto itemWithComments;
     private CommentResponseDto commentResponseDto;
@@ -103,7 +136,7 @@ class ItemControllerTest {
 
     @Test
     void getItemById_ReturnsItem() throws Exception {
-        when(itemService.getItemById(eq(1L), eq(100L))).thenReturn(itemWithComments);
+        when(itemService.getItemById(eq(1L), eq(100L), eq(0), eq(20))).thenReturn(itemWithComments);
 
         mvc.perform(get("/items/{itemId}", 1L)
                         .header("X-Sharer-User-Id", 100L))
@@ -112,6 +145,18 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.comments[0].text").value("Great!"));
     }
 
+    @Test
+    void getItemById_PassesCommentsPage() throws Exception {
+        when(itemService.getItemById(eq(1L), eq(100L), eq(40), eq(20))).thenReturn(itemWithComments);
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .param("commentsFrom", "40")
+                        .param("commentsSize", "20")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
     @Test
     void getItemsByUser_ReturnsListOfItems() throws Exception {
         when(itemService.getItemsByUser(eq(100L))).thenReturn(List.of(itemWithComments));
@@ -148,4 +193,184 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.text").value("Great!"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemAvailability_ReturnsIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 2, 1, 0, 0);
+
+        IntervalDto busy = new IntervalDto();
+        busy.setStart(from.plusDays(1));
+        busy.setEnd(from.plusDays(2));
+
+        ItemAvailabilityResponseDto availability = new ItemAvailabilityResponseDto();
+        availability.setItemId(1L);
+        availability.setFrom(from);
+        availability.setTo(to);
+        availability.setBusy(List.of(busy));
+        availability.setFree(List.of());
+
+        when(itemService.getItemAvailability(1L, 100L, from, to)).thenReturn(availability);
+
+        mvc.perform(get("/items/{itemId}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-02-01T00:00:00")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(1))
+                .andExpect(jsonPath("$.busy.size()").value(1));
+    }
+
+    @Test
+    void getNextFreeSlot_ReturnsWindow() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        IntervalDto window = new IntervalDto();
+        window.setStart(from.plusDays(1));
+        window.setEnd(from.plusDays(1).plusHours(2));
+
+        when(itemService.getNextFreeSlot(1L, 100L, from, Duration.ofHours(2))).thenReturn(window);
+
+        mvc.perform(get("/items/{itemId}/availability/next", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("duration", "PT2H")
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.start").value("2030-01-02T00:00:00"))
+                .andExpect(jsonPath("$.end").value("2030-01-02T02:00:00"));
+    }
+
+    @Test
+    void getItemById_ReturnsETag() throws Exception {
+        when(itemService.getItemETag(1L, 100L)).thenReturn("\"item-v1\"");
+        when(itemService.getItemById(eq(1L), eq(100L), eq(0), eq(20))).thenReturn(itemWithComments);
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 100L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-v1\""))
+                .andExpect(header().string(HttpHeaders.VARY, "X-Sharer-User-Id"));
+    }
+
+    @Test
+    void getItemById_MatchingETag_NotModified() throws Exception {
+        when(itemService.getItemETag(1L, 100L)).thenReturn("\"item-v1\"");
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 100L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-v1\""));
+
+        verify(itemService, never()).getItemById(anyLong(), anyLong(), anyInt(), anyInt());
+    }
+
+    // Неизвестному пользователю 304 не отдаётся: тег считается после его проверки
+    @Test
+    void getItemById_MatchingETagOfUnknownUser_NotFound() throws Exception {
+        when(itemService.getItemETag(1L, 999L)).thenThrow(new NotFoundException("User with id=999 not found"));
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 999L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-v1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchItems_MatchingETag_NotModified() throws Exception {
+        when(versions.listTag(GatewayCacheRegion.ITEMS)).thenReturn("\"items-v3\"");
+
+        mvc.perform(get("/items/search")
+                        .param("text", "book")
+                        .header("X-Sharer-User-Id", 100L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"items-v3\""))
+                .andExpect(status().isNotModified());
+
+        verify(itemService, never()).searchItems(any());
+    }
+
+    // gateway запрашивает Smile: тот же DTO приходит в бинарном виде
+    @Test
+    void getItemById_AcceptSmile_ReturnsSmile() throws Exception {
+        when(itemService.getItemById(eq(1L), eq(100L), eq(0), eq(20))).thenReturn(itemWithComments);
+
+        MvcResult result = mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 100L)
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn();
+
+        ItemWithCommentsResponseDto decoded = smileConverter.getObjectMapper()
+                .readValue(result.getResponse().getContentAsByteArray(), ItemWithCommentsResponseDto.class);
+        assertEquals(itemWithComments, decoded);
+    }
+
+    @Test
+    void createItem_SmileBody_ReturnsCreatedItem() throws Exception {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setName("New Book");
+        dto.setDescription("Awesome book");
+        dto.setAvailable(true);
+
+        when(itemService.createItem(eq(dto), eq(100L))).thenReturn(itemResponseDto);
+
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", 100L)
+                        .contentType(SMILE)
+                        .content(smileConverter.getObjectMapper().writeValueAsBytes(dto))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(itemResponseDto.getId()));
+    }
+
+    // Ошибка остаётся в JSON, даже если просили Smile
+    @Test
+    void getItemById_NotFound_AcceptSmile_ReturnsJsonError() throws Exception {
+        when(itemService.getItemById(eq(1L), eq(100L), eq(0), eq(20))).thenThrow(new NotFoundException("Item not found"));
+
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 100L)
+                        .accept(SMILE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("NotFoundException"));
+    }
+
+    @Test
+    void importItems_WritesResultLinePerImportedLine() throws Exception {
+        doAnswer(invocation -> {
+            Stream<String> lines = invocation.getArgument(1);
+            Consumer<List<ItemImportResultDto>> results = invocation.getArgument(2);
+            assertEquals(2, lines.count());
+            results.accept(List.of(ItemMapper.toItemImportResultDto(1, 10L, null)));
+            results.accept(List.of(ItemMapper.toItemImportResultDto(2, null, "Name must not be blank")));
+            return null;
+        }).when(importService).importItems(eq(1L), any(), any());
+
+        String body = mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(ItemImportStatus.CREATED, mapper.readValue(lines[0], ItemImportResultDto.class).getStatus());
+        assertEquals("Name must not be blank", mapper.readValue(lines[1], ItemImportResultDto.class).getError());
+    }
+
+    @Test
+    void importItems_UnknownOwner_NotFound() throws Exception {
+        doThrow(new NotFoundException("User with id=99 not found"))
+                .when(importService).importItems(eq(99L), any(), any());
+
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 99L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.server.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.exception.NotFoundException;
+import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
+import ru.practicum.shareit.server.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.server.item.dto.ItemImportStatus;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.service.ItemImportService;
+import ru.practicum.shareit.server.request.dal.RequestRepository;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemImportServiceTest {
+
+    private static final Long OWNER_ID = 1L;
+    private static final String DRILL = "{\"name\":\"Drill\",\"description\":\"Cordless\",\"available\":true}";
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private ItemImportService importService;
+    private List<List<ItemImportResultDto>> chunks;
+
+    @BeforeEach
+    void setUp() {
+        // порции по две строки, чтобы загрузка из нескольких строк разбивалась на несколько порций
+        importService = new ItemImportService(itemRepository, userService, requestRepository, searchIndex, events,
+                new ObjectMapper(), 2);
+        chunks = new ArrayList<>();
+    }
+
+    @Test
+    void linesAreImportedByChunksWithResultPerLine() {
+        AtomicLong ids = new AtomicLong(100);
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            items.forEach(item -> item.setId(ids.incrementAndGet()));
+            return items;
+        });
+        when(requestRepository.findExistingIds(Set.of(7L))).thenReturn(Set.of(7L));
+        when(requestRepository.findExistingIds(Set.of(8L))).thenReturn(Set.of());
+
+        importService.importItems(OWNER_ID, Stream.of(
+                DRILL,
+                "not json",
+                "",
+                "{\"name\":\"\",\"description\":\"Saw\",\"available\":true}",
+                "{\"name\":\"Tent\",\"description\":\"For two\",\"available\":false,\"requestId\":7}",
+                "{\"name\":\"Bike\",\"description\":\"City\",\"available\":true,\"requestId\":8}"), chunks::add);
+
+        // пустая строка пропущена, но нумерация строк её учитывает
+        assertEquals(3, chunks.size());
+        List<ItemImportResultDto> results = chunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(ItemImportResultDto::getLine).toList());
+        assertEquals(List.of(ItemImportStatus.CREATED, ItemImportStatus.REJECTED, ItemImportStatus.REJECTED,
+                        ItemImportStatus.CREATED, ItemImportStatus.REJECTED),
+                results.stream().map(ItemImportResultDto::getStatus).toList());
+        assertEquals(101L, results.get(0).getItemId());
+        assertTrue(results.get(1).getError().startsWith("Malformed JSON"));
+        assertEquals("Request with id=8 not found", results.get(4).getError());
+
+        verify(userService, times(1)).getUserById(OWNER_ID);
+        verify(itemRepository, times(2)).saveAll(anyList());
+        verify(searchIndex, times(2)).index(any(Item.class));
+        // вещи обеих порций и запрос 7
+        verify(events, times(3)).publishEvent(any(GatewayCacheInvalidation.class));
+    }
+
+    @Test
+    void unknownOwnerFailsBeforeAnyLineIsRead() {
+        when(userService.getUserById(OWNER_ID)).thenThrow(new NotFoundException("User with id=1 not found"));
+
+        assertThrows(NotFoundException.class, () -> importService.importItems(OWNER_ID, Stream.of(DRILL), chunks::add));
+
+        assertTrue(chunks.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void rolledBackChunkRejectsItsLines() {
+        when(itemRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("fk_request"));
+
+        importService.importItems(OWNER_ID, Stream.of(DRILL, "[1]"), chunks::add);
+
+        List<ItemImportResultDto> results = chunks.getFirst();
+        assertEquals(ItemImportStatus.REJECTED, results.get(0).getStatus());
+        assertNull(results.get(0).getItemId());
+        assertTrue(results.get(1).getError().startsWith("Malformed JSON"));
+        verifyNoInteractions(searchIndex, events);
+    }
+}
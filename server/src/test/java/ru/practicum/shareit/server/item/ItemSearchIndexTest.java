@@ -0,0 +1,133 @@
+package ru.practicum.shareit.server.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        index = new ItemSearchIndex(itemRepository);
+    }
+
+    @Test
+    void searchIsCaseInsensitiveAndMatchesWordPrefix() {
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        index.index(item(2L, "Отвёртка", "Аккумуляторная отвёртка", true));
+
+        assertEquals(Set.of(1L), index.search("дРелЬ"));
+        assertEquals(Set.of(1L), index.search("дре"));
+        assertEquals(Set.of(2L), index.search("аккумулятор"));
+    }
+
+    @Test
+    void searchDoesNotMatchInsideWord() {
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+
+        // поиск идёт с начала слова, а не по подстроке, как прежний LIKE '%text%'
+        assertTrue(index.search("рел").isEmpty());
+        assertTrue(index.search("стая").isEmpty());
+    }
+
+    @Test
+    void shortQueryWordMatchesOnlyWholeWord() {
+        index.index(item(1L, "Пила", "Пила и топор", true));
+        index.index(item(2L, "Игла", "Швейная игла", true));
+
+        assertEquals(Set.of(1L), index.search("и"));
+        assertTrue(index.search("пи").isEmpty());
+        assertEquals(Set.of(1L), index.search("пил и"));
+    }
+
+    @Test
+    void searchRequiresEveryQueryWord() {
+        index.index(item(1L, "Дрель", "Аккумуляторная дрель", true));
+        index.index(item(2L, "Дрель", "Сетевая дрель", true));
+
+        assertEquals(Set.of(1L), index.search("аккумуляторная дрель"));
+        assertEquals(Set.of(1L, 2L), index.search("дрель"));
+    }
+
+    @Test
+    void unavailableItemIsNotIndexed() {
+        index.index(item(1L, "Дрель", "Простая дрель", false));
+
+        assertTrue(index.search("дрель").isEmpty());
+    }
+
+    @Test
+    void reindexReplacesOldWords() {
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        index.index(item(1L, "Пила", "Ручная пила", true));
+
+        assertTrue(index.search("дрель").isEmpty());
+        assertEquals(Set.of(1L), index.search("пила"));
+    }
+
+    @Test
+    void blankQueryFindsNothing() {
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+
+        assertTrue(index.search("").isEmpty());
+        assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    void warmUpLoadsItemsFromRepository() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(item(1L, "Дрель", "Простая дрель", true)));
+
+        index.warmUp();
+
+        assertEquals(Set.of(1L), index.search("дрель"));
+    }
+
+    @Test
+    void warmUpDoesNotOverwriteItemsChangedMeanwhile() {
+        // пачка прочитана до изменений: вещь 1 потом переименовали, вещь 2 убрали из поиска
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            index.index(item(1L, "Пила", "Ножовка", true));
+            index.remove(2L);
+            return List.of(item(1L, "Дрель", "Простая дрель", true), item(2L, "Отвёртка", "Крестовая", true),
+                    item(3L, "Молоток", "Слесарный", true));
+        });
+
+        index.warmUp();
+
+        assertTrue(index.search("дрель").isEmpty());
+        assertEquals(Set.of(1L), index.search("пила"));
+        assertTrue(index.search("отвёртка").isEmpty());
+        assertEquals(Set.of(3L), index.search("молоток"));
+
+        // после прогрева изменения применяются как обычно
+        index.index(item(1L, "Дрель", "Простая дрель", true));
+        assertEquals(Set.of(1L), index.search("дрель"));
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        item.setOwner(1L);
+        return item;
+    }
+}
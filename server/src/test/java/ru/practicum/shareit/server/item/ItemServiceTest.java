@@ -3,31 +3,45 @@ package ru.practicum.shareit.server.item;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
 import ru.practicum.shareit.server.booking.dal.BookingRepository;
+import ru.practicum.shareit.server.booking.dal.ItemBookingDates;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.model.BookingStatus;
+import ru.practicum.shareit.server.booking.model.TimeInterval;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
 import ru.practicum.shareit.server.exception.ForbiddenException;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dal.CommentRepository;
+import ru.practicum.shareit.server.item.dal.CommentWithAuthor;
 import ru.practicum.shareit.server.item.dal.ItemRepository;
+import ru.practicum.shareit.server.item.dal.ItemSearchIndex;
 import ru.practicum.shareit.server.item.dto.*;
 import ru.practicum.shareit.server.item.model.Comment;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.item.service.ItemServiceImpl;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
 import ru.practicum.shareit.server.user.dal.UserRepository;
 import ru.practicum.shareit.server.user.dto.UserMapper;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -50,6 +64,18 @@ class ItemServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private BookingIntervalIndex bookingIndex;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private ResourceVersions versions;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -113,6 +139,28 @@ class ItemServiceTest {
         assertNotNull(result);
         assertEquals(item.getId(), result.getId());
         assertEquals(item.getName(), result.getName());
+        verify(searchIndex).index(item);
+        verify(events).publishEvent(argThat((Object event) -> event instanceof GatewayCacheInvalidation invalidation
+                && invalidation.getRegion() == GatewayCacheRegion.ITEMS
+                && invalidation.getIds().equals(List.of(item.getId()))));
+    }
+
+    @Test
+    void createItemForRequestInvalidatesRequest() {
+        ItemRequestDto dto = new ItemRequestDto();
+        dto.setName("New Item");
+        dto.setDescription("Brand new");
+        dto.setAvailable(true);
+        item.setRequest(7L);
+
+        when(userService.getUserById(anyLong())).thenReturn(UserMapper.toUserResponseDto(owner));
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+
+        itemService.createItem(dto, owner.getId());
+
+        verify(events).publishEvent(argThat((Object event) -> event instanceof GatewayCacheInvalidation invalidation
+                && invalidation.getRegion() == GatewayCacheRegion.REQUESTS
+                && invalidation.getIds().equals(List.of(7L))));
     }
 
 
@@ -121,13 +169,16 @@ class ItemServiceTest {
         ItemUpdateRequestDto dto = new ItemUpdateRequestDto();
         dto.setName("Updated Name");
 
-        when(itemRepository.getItemById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(itemRepository.save(any(Item.class))).thenReturn(item);
 
         ItemResponseDto result = itemService.updateItem(item.getId(), dto, owner.getId());
 
         assertNotNull(result);
         assertEquals("Updated Name", result.getName());
+        verify(events).publishEvent(argThat((Object event) -> event instanceof GatewayCacheInvalidation invalidation
+                && invalidation.getRegion() == GatewayCacheRegion.BOOKINGS
+                && invalidation.getIds().isEmpty()));
     }
 
     @Test
@@ -135,13 +186,67 @@ class ItemServiceTest {
         ItemUpdateRequestDto dto = new ItemUpdateRequestDto();
         dto.setName("Updated Name");
 
-        when(itemRepository.getItemById(anyLong()))
+        when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item));
 
         assertThrows(ForbiddenException.class, () ->
                 itemService.updateItem(item.getId(), dto, 999L));
     }
 
+    @Test
+    void updateItemNotFound() {
+        ItemUpdateRequestDto dto = new ItemUpdateRequestDto();
+        dto.setName("Updated Name");
+
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () ->
+                itemService.updateItem(999L, dto, owner.getId()));
+        verify(itemRepository, never()).getItemById(anyLong());
+    }
+
+    // ========== getItemETag ==========
+
+    @Test
+    void getItemETagOfOwnerIncludesPassedBookingBoundaries() {
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.countPassedBoundaries(eq(item.getId()), any(LocalDateTime.class))).thenReturn(3L);
+        when(versions.resourceTag(GatewayCacheRegion.ITEMS, item.getId(), "owner", 3L)).thenReturn("\"items-1-3\"");
+
+        assertEquals("\"items-1-3\"", itemService.getItemETag(item.getId(), owner.getId()));
+    }
+
+    // Не владелец дат бронирований не видит: его тег от них не зависит и отличается от тега владельца
+    @Test
+    void getItemETagOfViewerSkipsBookings() {
+        User viewer = new User();
+        viewer.setId(2L);
+        when(userRepository.getUserById(viewer.getId())).thenReturn(Optional.of(viewer));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        when(versions.resourceTag(GatewayCacheRegion.ITEMS, item.getId(), "viewer")).thenReturn("\"items-1\"");
+
+        assertEquals("\"items-1\"", itemService.getItemETag(item.getId(), viewer.getId()));
+        verify(bookingRepository, never()).countPassedBoundaries(anyLong(), any());
+    }
+
+    @Test
+    void getItemETagOfUnknownUserThrowsNotFound() {
+        when(userRepository.getUserById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemETag(item.getId(), 999L));
+        verifyNoInteractions(versions);
+    }
+
+    @Test
+    void getItemETagOfMissingItemThrowsNotFound() {
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemETag(999L, owner.getId()));
+        verifyNoInteractions(versions);
+    }
+
     // ========== getItemById ==========
 
     @Test
@@ -153,23 +258,58 @@ class ItemServiceTest {
         when(userRepository.getUserById(anyLong()))
                 .thenReturn(Optional.of(owner));
 
-        when(commentRepository.findAllByItemId(anyLong()))
-                .thenReturn(List.of(comment));
-
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(owner));
+        when(commentRepository.findCommentsWithAuthorByItemId(item.getId(), new OffsetPageRequest(0, 20)))
+                .thenReturn(List.of(commentWithAuthor(comment, owner.getName())));
 
-        ItemWithCommentsResponseDto result = itemService.getItemById(item.getId(), owner.getId());
+        ItemWithCommentsResponseDto result = itemService.getItemById(item.getId(), owner.getId(), 0, 20);
 
         assertNotNull(result);
         assertEquals(item.getName(), result.getName());
-        assertFalse(result.getComments().isEmpty());
+        assertEquals(1, result.getComments().size());
+        assertEquals(owner.getName(), result.getComments().getFirst().getAuthorName());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getItemByIdRequestsCommentsPage() {
+        when(itemRepository.getItemById(anyLong())).thenReturn(Optional.of(item));
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(owner));
+        when(commentRepository.findCommentsWithAuthorByItemId(item.getId(), new OffsetPageRequest(20, 10)))
+                .thenReturn(List.of());
+
+        ItemWithCommentsResponseDto result = itemService.getItemById(item.getId(), owner.getId(), 20, 10);
+
+        assertTrue(result.getComments().isEmpty());
+    }
+
+    @Test
+    void getItemByIdCommentsPageStartsAtNonAlignedOffset() {
+        when(itemRepository.getItemById(anyLong())).thenReturn(Optional.of(item));
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(owner));
+        when(commentRepository.findCommentsWithAuthorByItemId(eq(item.getId()), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        itemService.getItemById(item.getId(), owner.getId(), 15, 10);
+
+        // окно 15..24, а не страница 10..19
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(commentRepository).findCommentsWithAuthorByItemId(eq(item.getId()), page.capture());
+        assertEquals(15, page.getValue().getOffset());
+        assertEquals(10, page.getValue().getPageSize());
+    }
+
+    @Test
+    void getItemByIdInvalidCommentsPage() {
+        assertThrows(ValidationException.class, () ->
+                itemService.getItemById(item.getId(), owner.getId(), -1, 10));
+        assertThrows(ValidationException.class, () ->
+                itemService.getItemById(item.getId(), owner.getId(), 0, 0));
     }
 
     @Test
     void getItemByIdNotFound() {
         assertThrows(NotFoundException.class, () ->
-                itemService.getItemById(999L, owner.getId()));
+                itemService.getItemById(999L, owner.getId(), 0, 20));
     }
 
     @Test
@@ -181,8 +321,8 @@ class ItemServiceTest {
         when(itemRepository.findByOwner(anyLong()))
                 .thenReturn(List.of(item));
 
-        when(bookingRepository.findApprovedBookingsByItemIdsOrderByDesc(anyList()))
-                .thenReturn(List.of(pastBooking, futureBooking));
+        when(bookingRepository.findApprovedBookingDatesByItemIds(anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(bookingDates(item.getId(), pastBooking.getEnd(), futureBooking.getStart())));
 
         when(commentRepository.findAllCommentsByItemIdsOrderByDesc(anyList()))
                 .thenReturn(List.of(comment));
@@ -194,11 +334,14 @@ class ItemServiceTest {
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        assertEquals(pastBooking.getEnd(), result.iterator().next().getLastBooking());
+        assertEquals(futureBooking.getStart(), result.iterator().next().getNextBooking());
     }
 
     @Test
     void searchItemsTest() {
-        when(itemRepository.searchItems(anyString())).thenReturn(List.of(item));
+        when(searchIndex.search(anyString())).thenReturn(Set.of(item.getId()));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item));
 
         Collection<ItemResponseDto> result = itemService.searchItems("test");
 
@@ -206,6 +349,17 @@ class ItemServiceTest {
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    void searchItemsSkipsUnavailableItems() {
+        item.setAvailable(false);
+        when(searchIndex.search(anyString())).thenReturn(Set.of(item.getId()));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item));
+
+        Collection<ItemResponseDto> result = itemService.searchItems("test");
+
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     void searchItemsWithEmptyQuery() {
         Collection<ItemResponseDto> result = itemService.searchItems("");
@@ -227,8 +381,9 @@ class ItemServiceTest {
         when(bookingRepository.findTopByItemIdAndEndBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class)))
                 .thenReturn(Optional.ofNullable(pastBooking));
 
-        when(bookingRepository.findPastBookings(any(User.class)))
-                .thenReturn(List.of(pastBooking));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                eq(owner.getId()), eq(item.getId()), eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(true);
 
         when(commentRepository.save(any(Comment.class)))
                 .thenReturn(comment);
@@ -267,7 +422,9 @@ class ItemServiceTest {
         when(bookingRepository.findTopByItemIdAndEndBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class)))
                 .thenReturn(Optional.of(pastBooking));
 
-        when(bookingRepository.findPastBookings(any(User.class))).thenReturn(Collections.emptyList());
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(
+                eq(owner.getId()), eq(item.getId()), eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(false);
 
         assertThrows(ValidationException.class, () ->
                 itemService.addComment(new CommentRequestDto(), item.getId(), owner.getId()));
@@ -289,7 +446,7 @@ class ItemServiceTest {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.of(user));
 
         // Так как это не владелец, то бронирования не показываются
-        ItemWithCommentsResponseDto result = itemService.getItemById(item.getId(), user.getId());
+        ItemWithCommentsResponseDto result = itemService.getItemById(item.getId(), user.getId(), 0, 20);
 
         assertNotNull(result);
         assertNull(result.getLastBooking());
@@ -345,7 +502,7 @@ class ItemServiceTest {
         when(commentRepository.findAllCommentsByItemIdsOrderByDesc(anyList()))
                 .thenReturn(Collections.emptyList());
 
-        when(bookingRepository.findApprovedBookingsByItemIdsOrderByDesc(anyList()))
+        when(bookingRepository.findApprovedBookingDatesByItemIds(anyList(), any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
 
         Collection<ItemWithCommentsResponseDto> result = itemService.getItemsByUser(owner.getId());
@@ -356,4 +513,181 @@ class ItemServiceTest {
         assertTrue(result.iterator().next().getComments().isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void getItemAvailabilityReturnsBusyAndFreeIntervals() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findIntervalsBetween(item.getId(), BookingIntervalIndex.OCCUPYING_STATUSES, from, to))
+                .thenReturn(List.of(
+                        new TimeInterval(from, from.plusDays(2)),
+                        new TimeInterval(from.plusDays(4), from.plusDays(5))));
+
+        ItemAvailabilityResponseDto result = itemService.getItemAvailability(item.getId(), owner.getId(), from, to);
+
+        assertEquals(item.getId(), result.getItemId());
+        assertEquals(2, result.getBusy().size());
+        assertEquals(2, result.getFree().size());
+        assertEquals(from.plusDays(2), result.getFree().get(0).getStart());
+        assertEquals(from.plusDays(4), result.getFree().get(0).getEnd());
+        assertEquals(from.plusDays(5), result.getFree().get(1).getStart());
+        assertEquals(to, result.getFree().get(1).getEnd());
+    }
+
+    @Test
+    void getItemAvailabilityMergesAndClipsBookings() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        // брони из БД пересекают диапазон краями, вторая и третья стыкуются
+        when(bookingRepository.findIntervalsBetween(item.getId(), BookingIntervalIndex.OCCUPYING_STATUSES, from, to))
+                .thenReturn(List.of(
+                        new TimeInterval(from.minusDays(1), from.plusDays(1)),
+                        new TimeInterval(from.plusDays(3), from.plusDays(4)),
+                        new TimeInterval(from.plusDays(4), from.plusDays(5)),
+                        new TimeInterval(from.plusDays(9), to.plusDays(2))));
+
+        ItemAvailabilityResponseDto result = itemService.getItemAvailability(item.getId(), owner.getId(), from, to);
+
+        assertEquals(List.of(
+                        ItemMapper.toIntervalDto(new TimeInterval(from, from.plusDays(1))),
+                        ItemMapper.toIntervalDto(new TimeInterval(from.plusDays(3), from.plusDays(5))),
+                        ItemMapper.toIntervalDto(new TimeInterval(from.plusDays(9), to))),
+                result.getBusy());
+        assertEquals(List.of(
+                        ItemMapper.toIntervalDto(new TimeInterval(from.plusDays(1), from.plusDays(3))),
+                        ItemMapper.toIntervalDto(new TimeInterval(from.plusDays(5), from.plusDays(9)))),
+                result.getFree());
+    }
+
+    @Test
+    void getItemAvailabilityWithoutBookingsIsFree() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingRepository.findIntervalsBetween(item.getId(), BookingIntervalIndex.OCCUPYING_STATUSES, from, to))
+                .thenReturn(List.of());
+
+        ItemAvailabilityResponseDto result = itemService.getItemAvailability(item.getId(), owner.getId(), from, to);
+
+        assertTrue(result.getBusy().isEmpty());
+        assertEquals(1, result.getFree().size());
+        assertEquals(from, result.getFree().getFirst().getStart());
+        assertEquals(to, result.getFree().getFirst().getEnd());
+    }
+
+    @Test
+    void getItemAvailabilityInvalidRange() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThrows(ValidationException.class, () ->
+                itemService.getItemAvailability(item.getId(), owner.getId(), from, from));
+    }
+
+    @Test
+    void getItemAvailabilityUserNotFound() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        when(userRepository.getUserById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () ->
+                itemService.getItemAvailability(item.getId(), 999L, from, from.plusDays(1)));
+    }
+
+    @Test
+    void getNextFreeSlotReturnsWindowFromIndex() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        Duration duration = Duration.ofHours(2);
+
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingIndex.nextFreeSlot(item.getId(), from, duration)).thenReturn(from.plusDays(1));
+
+        IntervalDto result = itemService.getNextFreeSlot(item.getId(), owner.getId(), from, duration);
+
+        assertEquals(from.plusDays(1), result.getStart());
+        assertEquals(from.plusDays(1).plus(duration), result.getEnd());
+    }
+
+    @Test
+    void getNextFreeSlotDoesNotSearchInPast() {
+        LocalDateTime before = LocalDateTime.now();
+        Duration duration = Duration.ofHours(2);
+
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(item.getId())).thenReturn(Optional.of(item));
+        when(bookingIndex.nextFreeSlot(eq(item.getId()), any(LocalDateTime.class), eq(duration)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        IntervalDto result = itemService.getNextFreeSlot(item.getId(), owner.getId(), before.minusDays(3), duration);
+
+        assertFalse(result.getStart().isBefore(before));
+    }
+
+    @Test
+    void getNextFreeSlotRequiresPositiveDuration() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThrows(ValidationException.class, () ->
+                itemService.getNextFreeSlot(item.getId(), owner.getId(), from, Duration.ZERO));
+        verifyNoInteractions(bookingIndex);
+    }
+
+    @Test
+    void getNextFreeSlotItemNotFound() {
+        when(userRepository.getUserById(owner.getId())).thenReturn(Optional.of(owner));
+        when(itemRepository.getItemById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () ->
+                itemService.getNextFreeSlot(999L, owner.getId(), LocalDateTime.now(), Duration.ofHours(1)));
+    }
+
+    private static ItemBookingDates bookingDates(Long itemId, LocalDateTime lastBooking, LocalDateTime nextBooking) {
+        return new ItemBookingDates() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getLastBooking() {
+                return lastBooking;
+            }
+
+            @Override
+            public LocalDateTime getNextBooking() {
+                return nextBooking;
+            }
+        };
+    }
+
+    private static CommentWithAuthor commentWithAuthor(Comment comment, String authorName) {
+        return new CommentWithAuthor() {
+            @Override
+            public Long getId() {
+                return comment.getId();
+            }
+
+            @Override
+            public String getText() {
+                return comment.getText();
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return comment.getCreated();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return authorName;
+            }
+        };
+    }
+}
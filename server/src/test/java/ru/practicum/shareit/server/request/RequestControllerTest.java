@@ -5,10 +5,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.item.dto.ItemInRequestResponseDto;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.request.dto.RequestRequestDto;
 import ru.practicum.shareit.server.request.dto.RequestResponseDto;
 import ru.practicum.shareit.server.request.dto.RequestWithItemsResponseDto;
@@ -20,9 +23,14 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -101,11 +109,13 @@ class RequestControllerTest {
 
     @Test
     void getOtherUsersRequests_ReturnsListOfRequests() throws Exception {
-        when(requestService.getOtherUsersRequests(eq(1L))).thenReturn(List.of(requestWithItems));
+        when(requestService.getOtherUsersRequests(eq(1L), isNull(), eq(20)))
+                .thenReturn(new KeysetPage<>(List.of(requestWithItems), null));
 
         mvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$.size()").value(1))
                 .andExpect(jsonPath("$[0].items.size()").value(1))
                 .andExpect(jsonPath("$[0].items[0].id").value(1L))
@@ -113,6 +123,20 @@ class RequestControllerTest {
                 .andExpect(jsonPath("$[0].items[0].ownerId").value(2L));
     }
 
+    @Test
+    void getOtherUsersRequests_PassesCursorAndReturnsNextCursorHeader() throws Exception {
+        when(requestService.getOtherUsersRequests(eq(1L), eq("cursor"), eq(1)))
+                .thenReturn(new KeysetPage<>(List.of(requestWithItems), "next"));
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "cursor")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$.size()").value(1));
+    }
+
     @Test
     void getRequestById_ReturnsRequestWithItems() throws Exception {
         when(requestService.getRequestById(eq(100L))).thenReturn(requestWithItems);
@@ -125,4 +149,41 @@ class RequestControllerTest {
                 .andExpect(jsonPath("$.items[0].name").value("Book"))
                 .andExpect(jsonPath("$.items[0].ownerId").value(2L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRequestById_MatchingETag_NotModified() throws Exception {
+        when(requestService.getRequestETag(100L)).thenReturn("\"request-v2\"");
+
+        mvc.perform(get("/requests/{requestId}", 100L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"request-v2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"request-v2\""));
+
+        verify(requestService, never()).getRequestById(anyLong());
+    }
+
+    @Test
+    void getUserRequests_StaleETag_ReturnsBody() throws Exception {
+        when(requestService.getRequestsETag(1L)).thenReturn("\"requests-v2\"");
+        when(requestService.getUserRequests(eq(1L))).thenReturn(List.of(requestWithItems));
+
+        mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"requests-v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"requests-v2\""))
+                .andExpect(jsonPath("$.size()").value(1));
+    }
+
+    // Удалённый запрос не подтверждается по старому тегу
+    @Test
+    void getRequestById_MatchingETagOfMissingRequest_NotFound() throws Exception {
+        when(requestService.getRequestETag(100L)).thenThrow(new NotFoundException("Request with id=100 not found"));
+
+        mvc.perform(get("/requests/{requestId}", 100L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"request-v2\""))
+                .andExpect(status().isNotFound());
+
+        verify(requestService, never()).getRequestById(anyLong());
+    }
+}
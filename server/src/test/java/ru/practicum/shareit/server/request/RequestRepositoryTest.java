@@ -0,0 +1,95 @@
+package ru.practicum.shareit.server.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.request.dal.RequestRepository;
+import ru.practicum.shareit.server.request.model.Request;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class RequestRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    private User viewer;
+    private Request newest;
+    private Request sameTimeOlderId;
+    private Request sameTimeNewerId;
+    private Request oldest;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        viewer = em.persist(user("viewer"));
+        User requestor = em.persist(user("requestor"));
+
+        newest = em.persist(request(requestor, now));
+        sameTimeOlderId = em.persist(request(requestor, now.minusHours(1)));
+        sameTimeNewerId = em.persist(request(requestor, now.minusHours(1)));
+        oldest = em.persist(request(requestor, now.minusDays(1)));
+
+        // собственные запросы смотрящего в выдачу не попадают
+        em.persist(request(viewer, now.plusHours(1)));
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void firstPageIsOrderedFromNewestWithIdAsTieBreaker() {
+        KeysetCursor first = KeysetCursor.decode(null);
+
+        List<Request> page = requestRepository.findOtherUsersRequests(
+                viewer.getId(), first.getPosition(), first.getId(), PageRequest.of(0, 3));
+
+        assertEquals(List.of(newest.getId(), sameTimeNewerId.getId(), sameTimeOlderId.getId()),
+                page.stream().map(Request::getId).toList());
+    }
+
+    @Test
+    void nextPageStartsStrictlyAfterCursor() {
+        List<Request> page = requestRepository.findOtherUsersRequests(
+                viewer.getId(), sameTimeNewerId.getCreated(), sameTimeNewerId.getId(), PageRequest.of(0, 3));
+
+        assertEquals(List.of(sameTimeOlderId.getId(), oldest.getId()),
+                page.stream().map(Request::getId).toList());
+    }
+
+    @Test
+    void findExistingIdsReturnsOnlyPersistedRequests() {
+        assertEquals(Set.of(newest.getId(), oldest.getId()),
+                requestRepository.findExistingIds(List.of(newest.getId(), oldest.getId(), Long.MAX_VALUE)));
+    }
+
+    private Request request(User requestor, LocalDateTime created) {
+        Request request = new Request();
+        request.setDescription("Request of " + requestor.getName());
+        request.setRequestor(requestor.getId());
+        request.setCreated(created);
+        return request;
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+}
@@ -6,9 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
+import ru.practicum.shareit.server.cache.GatewayCacheRegion;
+import ru.practicum.shareit.server.cache.ResourceVersions;
 import ru.practicum.shareit.server.exception.NotFoundException;
+import ru.practicum.shareit.server.exception.ValidationException;
 import ru.practicum.shareit.server.item.dal.ItemRepository;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.KeysetPage;
 import ru.practicum.shareit.server.request.dal.RequestRepository;
 import ru.practicum.shareit.server.request.dto.RequestRequestDto;
 import ru.practicum.shareit.server.request.dto.RequestResponseDto;
@@ -37,6 +44,12 @@ class RequestServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private ResourceVersions versions;
+
     @InjectMocks
     private RequestServiceImpl requestService;
 
@@ -82,6 +95,7 @@ class RequestServiceTest {
         assertNotNull(result);
         assertEquals(request.getId(), result.getId());
         assertEquals(request.getDescription(), result.getDescription());
+        verify(events).publishEvent(any(GatewayCacheInvalidation.class));
     }
 
     @Test
@@ -133,46 +147,80 @@ class RequestServiceTest {
     @Test
     void getOtherUsersRequests_success() {
 
-
         Long requestId = request.getId();
-        Set<Long> idList = new HashSet<>();
-
-        idList.add(requestId);
-
 
         Long userId = user.getId();
         when(userRepository.getUserById(userId))
                 .thenReturn(Optional.of(user));
 
-        Set<Request> requestList = new HashSet<>();
-        requestList.add(request);
-        when(requestRepository.findAllByRequestorIsNot(userId))
-                .thenReturn(requestList);
-
-        Collection<Long> requestsIds = requestList.stream()
-                .map(Request::getId)
-                .collect(Collectors.toSet());
+        when(requestRepository.findOtherUsersRequests(eq(userId), any(), any(), any()))
+                .thenReturn(List.of(request));
 
-        Collection<Item> items = new ArrayList<>();
-        items.add(item);
-        when(itemRepository.findAllByRequestIn(requestsIds))
-                .thenReturn(items);
+        when(itemRepository.findAllByRequestIn(Set.of(requestId)))
+                .thenReturn(List.of(item));
 
 
-        Collection<RequestWithItemsResponseDto> result = requestService.getOtherUsersRequests(userId);
+        KeysetPage<RequestWithItemsResponseDto> result = requestService.getOtherUsersRequests(userId, null, 10);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(requestId, result.iterator().next().getId());
+        assertEquals(1, result.getContent().size());
+        assertEquals(requestId, result.getContent().getFirst().getId());
+        assertEquals(1, result.getContent().getFirst().getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getOtherUsersRequests_keepsOrderAndReturnsCursorOfFullPage() {
+        Request older = new Request();
+        older.setId(2L);
+        older.setDescription("Older request");
+        older.setRequestor(user.getId());
+        older.setCreated(request.getCreated().minusDays(1));
+
+        when(userRepository.getUserById(user.getId())).thenReturn(Optional.of(user));
+        when(requestRepository.findOtherUsersRequests(eq(user.getId()), any(), any(), any()))
+                .thenReturn(List.of(request, older));
+        when(itemRepository.findAllByRequestIn(Set.of(1L, 2L))).thenReturn(List.of(item));
+
+        KeysetPage<RequestWithItemsResponseDto> result = requestService.getOtherUsersRequests(user.getId(), null, 2);
+
+        assertEquals(List.of(1L, 2L), result.getContent().stream().map(RequestWithItemsResponseDto::getId).toList());
+        assertTrue(result.getContent().get(1).getItems().isEmpty());
+        assertEquals(KeysetCursor.encode(older.getCreated(), older.getId()), result.getNextCursor());
+    }
+
+    @Test
+    void getOtherUsersRequests_emptyPage_doesNotLoadItems() {
+        when(userRepository.getUserById(user.getId())).thenReturn(Optional.of(user));
+        when(requestRepository.findOtherUsersRequests(eq(user.getId()), any(), any(), any()))
+                .thenReturn(List.of());
+
+        KeysetPage<RequestWithItemsResponseDto> result = requestService.getOtherUsersRequests(user.getId(), null, 10);
+
+        assertTrue(result.getContent().isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getOtherUsersRequests_invalidSize_throwsValidationException() {
+        assertThrows(ValidationException.class, () ->
+                requestService.getOtherUsersRequests(user.getId(), null, 0));
+        assertThrows(ValidationException.class, () ->
+                requestService.getOtherUsersRequests(user.getId(), null, null));
     }
 
+    @Test
+    void getOtherUsersRequests_invalidCursor_throwsValidationException() {
+        assertThrows(ValidationException.class, () ->
+                requestService.getOtherUsersRequests(user.getId(), "broken", 10));
+    }
 
     @Test
     void getOtherUsersRequests_userNotFound_throwsNotFoundException() {
         when(userRepository.getUserById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () ->
-                requestService.getOtherUsersRequests(999L));
+                requestService.getOtherUsersRequests(999L, null, 10));
     }
 
     @Test
@@ -196,4 +244,36 @@ class RequestServiceTest {
                 requestService.getRequestById(999L));
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void getRequestsETagIsPerUser() {
+        when(userRepository.getUserById(user.getId())).thenReturn(Optional.of(user));
+        when(versions.listTag(GatewayCacheRegion.REQUESTS, user.getId())).thenReturn("\"requests-1\"");
+
+        assertEquals("\"requests-1\"", requestService.getRequestsETag(user.getId()));
+    }
+
+    @Test
+    void getRequestsETagOfUnknownUserThrowsNotFound() {
+        when(userRepository.getUserById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> requestService.getRequestsETag(999L));
+        verifyNoInteractions(versions);
+    }
+
+    @Test
+    void getRequestETagOfMissingRequestThrowsNotFound() {
+        when(requestRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> requestService.getRequestETag(999L));
+        verifyNoInteractions(versions);
+    }
+
+    @Test
+    void getRequestETagOfExistingRequest() {
+        when(requestRepository.existsById(request.getId())).thenReturn(true);
+        when(versions.resourceTag(GatewayCacheRegion.REQUESTS, request.getId())).thenReturn("\"request-1\"");
+
+        assertEquals("\"request-1\"", requestService.getRequestETag(request.getId()));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.server.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.server.config.CacheConfig;
+import ru.practicum.shareit.server.user.dal.UserRepository;
+import ru.practicum.shareit.server.user.dto.UserRequestDto;
+import ru.practicum.shareit.server.user.dto.UserResponseDto;
+import ru.practicum.shareit.server.user.dto.UserUpdateRequestDto;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        assertNotNull(cache);
+        cache.clear();
+    }
+
+    @Test
+    void getUserByIdIsReadThrough() {
+        UserResponseDto created = createUser("cached");
+
+        Optional<User> first = userRepository.getUserById(created.getId());
+        Optional<User> second = userRepository.getUserById(created.getId());
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertNotNull(cache.get(created.getId()));
+    }
+
+    @Test
+    void missingUserIsNotCached() {
+        assertTrue(userRepository.getUserById(Long.MAX_VALUE).isEmpty());
+
+        assertNull(cache.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    void updateUserEvictsCachedUser() {
+        UserResponseDto created = createUser("before");
+        userRepository.getUserById(created.getId());
+
+        UserUpdateRequestDto update = new UserUpdateRequestDto();
+        update.setName("after");
+        userService.updateUser(update, created.getId());
+
+        assertNull(cache.get(created.getId()));
+        assertEquals("after", userRepository.getUserById(created.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void deleteUserEvictsCachedUser() {
+        UserResponseDto created = createUser("deleted");
+        userRepository.getUserById(created.getId());
+
+        userService.deleteUser(created.getId());
+
+        assertNull(cache.get(created.getId()));
+        assertTrue(userRepository.getUserById(created.getId()).isEmpty());
+    }
+
+    private UserResponseDto createUser(String name) {
+        UserRequestDto dto = new UserRequestDto();
+        dto.setName(name);
+        dto.setEmail(name + "@cache.example.com");
+        return userService.createUser(dto);
+    }
+}
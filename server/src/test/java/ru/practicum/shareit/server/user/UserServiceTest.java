@@ -6,7 +6,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.server.booking.dal.BookingIntervalIndex;
+import ru.practicum.shareit.server.cache.GatewayCacheInvalidation;
 import ru.practicum.shareit.server.exception.ConflictException;
 import ru.practicum.shareit.server.exception.NotFoundException;
 import ru.practicum.shareit.server.user.dal.UserRepository;
@@ -25,7 +28,11 @@ class UserServiceTest {
 
     @Mock
     UserRepository mockRepository;
-    UserService userService = new UserServiceImpl(mockRepository);
+    @Mock
+    ApplicationEventPublisher mockEvents;
+    @Mock
+    BookingIntervalIndex mockIntervalIndex;
+    UserService userService = new UserServiceImpl(mockRepository, mockEvents, mockIntervalIndex);
 
     @Test
     void createUserTest() {
@@ -94,6 +101,7 @@ class UserServiceTest {
                 .thenReturn(user);
 
         ReflectionTestUtils.setField(userService, "repository", mockRepository);
+        ReflectionTestUtils.setField(userService, "events", mockEvents);
         UserResponseDto result = userService.updateUser(requestDto, 1L);
 
         Assertions.assertNotNull(result);
@@ -107,11 +115,19 @@ class UserServiceTest {
         Long userId = 1L;
 
         ReflectionTestUtils.setField(userService, "repository", mockRepository);
+        ReflectionTestUtils.setField(userService, "events", mockEvents);
+        ReflectionTestUtils.setField(userService, "intervalIndex", mockIntervalIndex);
         userService.deleteUser(userId);
 
         Mockito
                 .verify(mockRepository, Mockito.times(1))
                 .deleteById(userId);
+        Mockito
+                .verify(mockIntervalIndex, Mockito.times(1))
+                .clear();
+        Mockito
+                .verify(mockEvents, Mockito.times(3))
+                .publishEvent(Mockito.any(GatewayCacheInvalidation.class));
     }
 
 
@@ -173,6 +189,7 @@ class UserServiceTest {
                 .thenReturn(user);
 
         ReflectionTestUtils.setField(userService, "repository", mockRepository);
+        ReflectionTestUtils.setField(userService, "events", mockEvents);
         UserResponseDto result = userService.updateUser(requestDto, 1L);
 
         Assertions.assertNotNull(result);
@@ -201,6 +218,7 @@ class UserServiceTest {
                 .thenReturn(user);
 
         ReflectionTestUtils.setField(userService, "repository", mockRepository);
+        ReflectionTestUtils.setField(userService, "events", mockEvents);
         UserResponseDto result = userService.updateUser(requestDto, 1L);
 
         Assertions.assertNotNull(result);